@@ -0,0 +1,38 @@
+package com.everis.benchmarks;
+
+import java.util.List;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+import com.everis.pages.BasePage;
+
+/**
+ * BenchmarkPage exposes the protected helpers of {@link BasePage} to the benchmarks.
+ */
+public class BenchmarkPage extends BasePage {
+
+    public WebElement visible(By by) {
+        return waitElement(by, 10);
+    }
+
+    public WebElement visible(WebElement element) {
+        return waitElement(element, 10);
+    }
+
+    public List<WebElement> allVisible(By by) {
+        return waitElements(by, 10);
+    }
+
+    public boolean notPresent(By by) {
+        return waitNotPresent(by, 10);
+    }
+
+    public boolean hasValue(WebElement element, String text) {
+        return waitUntilElementHasValue(element, text);
+    }
+
+    public void logWithScreenshot(String message) {
+        log(message);
+    }
+}
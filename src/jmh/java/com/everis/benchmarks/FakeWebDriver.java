@@ -0,0 +1,252 @@
+package com.everis.benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.Dimension;
+import org.openqa.selenium.NoSuchElementException;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.Point;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.logging.Logs;
+
+/**
+ * FakeWebDriver answers every command in memory, so the benchmarks measure
+ * the framework code and not the browser.
+ * - Every locator finds one visible element, except the ones marked as absent.
+ * - Screenshots are always the same PNG image.
+ * - It does not run scripts, so the waits use their polling fallback.
+ */
+public class FakeWebDriver implements WebDriver, TakesScreenshot {
+
+    private static final byte[] SCREENSHOT = screenshot(1366, 768);
+
+    private final Set<By> absent = new HashSet<>();
+    private final String value;
+
+    /**
+     * @param value value returned by the "value" attribute of the elements
+     */
+    public FakeWebDriver(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Makes the elements of the locator absent from the page.
+     *
+     * @param by element locator
+     * @return this driver
+     */
+    public FakeWebDriver absent(By by) {
+        absent.add(by);
+        return this;
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        if (absent.contains(by)) {
+            throw new NoSuchElementException("Absent element: " + by);
+        }
+        return new FakeWebElement(value);
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return absent.contains(by)
+                ? Collections.<WebElement>emptyList()
+                : Collections.<WebElement>singletonList(new FakeWebElement(value));
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return target.convertFromPngBytes(SCREENSHOT);
+    }
+
+    @Override
+    public void get(String url) { }
+
+    @Override
+    public String getCurrentUrl() { return "http://localhost/"; }
+
+    @Override
+    public String getTitle() { return "Fake"; }
+
+    @Override
+    public String getPageSource() { return "<html></html>"; }
+
+    @Override
+    public void close() { }
+
+    @Override
+    public void quit() { }
+
+    @Override
+    public Set<String> getWindowHandles() { return Collections.singleton("main"); }
+
+    @Override
+    public String getWindowHandle() { return "main"; }
+
+    @Override
+    public TargetLocator switchTo() { throw new UnsupportedOperationException(); }
+
+    @Override
+    public Navigation navigate() { throw new UnsupportedOperationException(); }
+
+    @Override
+    public Options manage() { return new FakeOptions(); }
+
+    private static byte[] screenshot(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 31 + y * 17) & 0xFFFFFF);
+            }
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Visible element with a fixed value.
+     */
+    private static class FakeWebElement implements WebElement {
+
+        private final String value;
+
+        private FakeWebElement(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public <X> X getScreenshotAs(OutputType<X> target) { return target.convertFromPngBytes(SCREENSHOT); }
+
+        @Override
+        public void click() { }
+
+        @Override
+        public void submit() { }
+
+        @Override
+        public void sendKeys(CharSequence... keysToSend) { }
+
+        @Override
+        public void clear() { }
+
+        @Override
+        public String getTagName() { return "input"; }
+
+        @Override
+        public String getAttribute(String name) { return "value".equals(name) ? value : null; }
+
+        @Override
+        public boolean isSelected() { return false; }
+
+        @Override
+        public boolean isEnabled() { return true; }
+
+        @Override
+        public String getText() { return value; }
+
+        @Override
+        public List<WebElement> findElements(By by) { return Collections.<WebElement>singletonList(new FakeWebElement(value)); }
+
+        @Override
+        public WebElement findElement(By by) { return new FakeWebElement(value); }
+
+        @Override
+        public boolean isDisplayed() { return true; }
+
+        @Override
+        public Point getLocation() { return new Point(0, 0); }
+
+        @Override
+        public Dimension getSize() { return new Dimension(100, 20); }
+
+        @Override
+        public Rectangle getRect() { return new Rectangle(0, 0, 20, 100); }
+
+        @Override
+        public String getCssValue(String propertyName) { return ""; }
+    }
+
+    /**
+     * Options that accept every setting and keep none.
+     */
+    private static class FakeOptions implements Options, Timeouts, Window {
+
+        @Override
+        public void addCookie(Cookie cookie) { }
+
+        @Override
+        public void deleteCookieNamed(String name) { }
+
+        @Override
+        public void deleteCookie(Cookie cookie) { }
+
+        @Override
+        public void deleteAllCookies() { }
+
+        @Override
+        public Set<Cookie> getCookies() { return Collections.emptySet(); }
+
+        @Override
+        public Cookie getCookieNamed(String name) { return null; }
+
+        @Override
+        public Timeouts timeouts() { return this; }
+
+        @Override
+        public ImeHandler ime() { throw new UnsupportedOperationException(); }
+
+        @Override
+        public Window window() { return this; }
+
+        @Override
+        public Logs logs() { throw new UnsupportedOperationException(); }
+
+        @Override
+        public Timeouts implicitlyWait(long time, TimeUnit unit) { return this; }
+
+        @Override
+        public Timeouts setScriptTimeout(long time, TimeUnit unit) { return this; }
+
+        @Override
+        public Timeouts pageLoadTimeout(long time, TimeUnit unit) { return this; }
+
+        @Override
+        public void setSize(Dimension targetSize) { }
+
+        @Override
+        public void setPosition(Point targetPosition) { }
+
+        @Override
+        public Dimension getSize() { return new Dimension(1366, 768); }
+
+        @Override
+        public Point getPosition() { return new Point(0, 0); }
+
+        @Override
+        public void maximize() { }
+
+        @Override
+        public void fullscreen() { }
+    }
+}
@@ -0,0 +1,82 @@
+package com.everis.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.everis.util.Utils;
+
+/**
+ * Latency of {@link Utils#waitForFileExistsInPath(String, int)} when the file
+ * already exists and when it is created 20 ms after the wait started.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class FileWaitBenchmark {
+
+    private static final Path ROOT = Paths.get("target/benchmarks/downloads");
+
+    private Path existing;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        FileUtils.deleteDirectory(ROOT.toFile());
+        existing = Files.createDirectories(ROOT.resolve("existing"));
+        Files.write(existing.resolve("file.txt"), new byte[] { 1 });
+    }
+
+    @Benchmark
+    public void fileAlreadyExists() {
+        Utils.waitForFileExistsInPath(existing.toString(), 10);
+    }
+
+    @Benchmark
+    public void fileCreatedLater(Download download) {
+        Utils.waitForFileExistsInPath(download.directory.toString(), 10);
+    }
+
+    /**
+     * Empty directory where a file is created 20 ms after the invocation starts.
+     */
+    @State(Scope.Thread)
+    public static class Download {
+
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        private int count;
+        private Path directory;
+
+        @Setup(Level.Invocation)
+        public void scheduleDownload() throws IOException {
+            directory = Files.createDirectories(ROOT.resolve("created-" + count++));
+            Path file = directory.resolve("file.txt");
+            scheduler.schedule(() -> Files.write(file, new byte[] { 1 }), 20, TimeUnit.MILLISECONDS);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.everis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.PageFactory;
+
+import com.everis.pages.BasePage;
+import com.everis.pages.PageObjects;
+
+/**
+ * Cost of initializing the elements of each page class,
+ * with PageFactory and with the cached locators of {@link PageObjects}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageInitBenchmark {
+
+    @Param({ "HomePage", "ResultadoPesquisaPage", "CarrinhoPage" })
+    public String pageClass;
+
+    private WebDriver driver;
+    private BasePage page;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        driver = new FakeWebDriver("Blouse");
+        Scenarios.bind(driver, null);
+        page = (BasePage) Class.forName("com.everis.pages." + pageClass).getDeclaredConstructor().newInstance();
+    }
+
+    @Benchmark
+    public BasePage pageFactoryInitElements() {
+        PageFactory.initElements(driver, page);
+        return page;
+    }
+
+    @Benchmark
+    public BasePage pageObjectsInitElements() {
+        PageObjects.initElements(driver, page);
+        return page;
+    }
+}
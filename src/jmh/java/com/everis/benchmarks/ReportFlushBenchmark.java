@@ -0,0 +1,53 @@
+package com.everis.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * Cost of ExtentReports.flush, which Hooks calls after every scenario,
+ * as the number of scenarios in the report grows.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportFlushBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int scenarios;
+
+    private ExtentReports extentReports;
+
+    @Setup
+    public void setUp() {
+        extentReports = Scenarios.newReport("flush-" + scenarios + ".html");
+        for (int i = 0; i < scenarios; i++) {
+            ExtentTest test = extentReports.createTest("Scenario: " + i, "Scenario " + i);
+            test.assignCategory("@test");
+            test.pass("Searched for the product: Blouse");
+            test.pass("Added product [Blouse] to the cart.");
+            test.pass("The product [Blouse] was correctly displayed in the cart.");
+        }
+    }
+
+    @Benchmark
+    public void flush() {
+        extentReports.flush();
+    }
+}
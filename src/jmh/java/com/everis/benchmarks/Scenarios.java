@@ -0,0 +1,46 @@
+package com.everis.benchmarks;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.openqa.selenium.WebDriver;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
+import com.everis.util.Hooks;
+
+/**
+ * Scenarios binds a browser and a report test to the benchmark thread,
+ * as {@link Hooks} does before each Cucumber scenario.
+ */
+final class Scenarios {
+
+    static final String REPORT_DIRECTORY = "target/benchmarks/";
+
+    private Scenarios() { }
+
+    /**
+     * @param reportName file name of the HTML report
+     * @return a report with the HTML reporter attached, as in {@link Hooks}
+     */
+    static ExtentReports newReport(String reportName) {
+        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(REPORT_DIRECTORY + reportName);
+        htmlReporter.config().setEncoding("ISO-8859-1");
+        ExtentReports extentReports = new ExtentReports();
+        extentReports.attachReporter(htmlReporter);
+        return extentReports;
+    }
+
+    /**
+     * Makes {@link Hooks#getDriver()} and {@link Hooks#getExtentTest()} return the given ones
+     * in the current thread.
+     */
+    @SuppressWarnings("unchecked")
+    static void bind(WebDriver driver, ExtentTest extentTest) {
+        try {
+            ((ThreadLocal<WebDriver>) FieldUtils.readStaticField(Hooks.class, "driver", true)).set(driver);
+            ((ThreadLocal<ExtentTest>) FieldUtils.readStaticField(Hooks.class, "extentTest", true)).set(extentTest);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
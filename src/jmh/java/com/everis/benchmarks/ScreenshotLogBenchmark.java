@@ -0,0 +1,54 @@
+package com.everis.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.everis.util.ScreenshotWriter;
+
+/**
+ * Cost of a step log: screenshot capture, saving it and logging it
+ * with MediaEntityBuilder in the report.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreenshotLogBenchmark {
+
+    private ExtentReports extentReports;
+    private BenchmarkPage page;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        new File(ScreenshotWriter.DIRECTORY).mkdirs();
+        extentReports = Scenarios.newReport("screenshot-log.html");
+        Scenarios.bind(new FakeWebDriver("Blouse"), extentReports.createTest("Scenario: benchmark"));
+        page = new BenchmarkPage();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        ScreenshotWriter.awaitCompletion();
+    }
+
+    @Benchmark
+    public void logWithScreenshot() {
+        page.logWithScreenshot("Searched for the product: Blouse");
+    }
+}
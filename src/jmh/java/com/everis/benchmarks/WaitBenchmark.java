@@ -0,0 +1,85 @@
+package com.everis.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.FindBy;
+
+import com.everis.pages.PageObjects;
+import com.everis.util.Hooks;
+
+/**
+ * Overhead of the {@link com.everis.pages.BasePage} wait helpers when the condition
+ * is already met: telemetry, locator extraction and the polling wait.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WaitBenchmark {
+
+    private static final By SEARCH_FIELD = By.cssSelector("#search_query_top");
+    private static final By LOADING = By.id("loading");
+
+    private BenchmarkPage page;
+    private WebElement proxy;
+
+    @Setup
+    public void setUp() {
+        Scenarios.bind(new FakeWebDriver("Blouse").absent(LOADING), null);
+        page = new BenchmarkPage();
+        proxy = new ProxyHolder().element;
+    }
+
+    @Benchmark
+    public WebElement waitElementByLocator() {
+        return page.visible(SEARCH_FIELD);
+    }
+
+    @Benchmark
+    public WebElement waitElementByProxy() {
+        return page.visible(proxy);
+    }
+
+    @Benchmark
+    public List<WebElement> waitElements() {
+        return page.allVisible(SEARCH_FIELD);
+    }
+
+    @Benchmark
+    public boolean waitNotPresent() {
+        return page.notPresent(LOADING);
+    }
+
+    @Benchmark
+    public boolean waitUntilElementHasValue() {
+        return page.hasValue(proxy, "Blouse");
+    }
+
+    /**
+     * Page object whose element is a proxy created by {@link PageObjects}, as in the real pages.
+     */
+    public static class ProxyHolder {
+
+        @FindBy(css = "#search_query_top")
+        private WebElement element;
+
+        ProxyHolder() {
+            PageObjects.initElements(Hooks.getDriver(), this);
+        }
+    }
+}
@@ -1,20 +1,33 @@
 package com.everis.pages;
 
-import java.io.File;
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
-import org.apache.commons.io.FileUtils;
 import org.openqa.selenium.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.support.ui.*;
 
 import com.aventstack.extentreports.*;
+import com.everis.util.DomWaits;
+import com.everis.util.Downloads;
+import com.everis.util.ElementQueries;
+import com.everis.util.ElementState;
 import com.everis.util.Hooks;
+import com.everis.util.ImpactIndex;
+import com.everis.util.Locators;
+import com.everis.util.PageReadiness;
+import com.everis.util.ScreenshotWriter;
+import com.everis.util.Timeline;
 import com.everis.util.Utils;
+import com.everis.util.WaitTelemetry;
 
 public class BasePage {
 
@@ -22,78 +35,177 @@ public class BasePage {
     protected ExtentTest extentTest = Hooks.getExtentTest();
     protected ExtentReports extentReport = Hooks.getExtentReports();
 
-    public BasePage() { }
+    public BasePage() {
+        ImpactIndex.touched(getClass());
+    }
 
     protected void wait(int seconds) {
-        try {
-            Thread.sleep(seconds * 1000L);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
+        try (Timeline.Span span = Timeline.span("wait", "wait", seconds + "s")) {
+            if (PageReadiness.isEnabled(driver)) {
+                waitPageIdle(TimeUnit.SECONDS.toMillis(seconds));
+                return;
+            }
+            try {
+                Thread.sleep(seconds * 1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
         }
     }
 
     protected void waitMilliseconds(int milliseconds) {
-        try {
-            Thread.sleep(milliseconds);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException(e);
+        try (Timeline.Span span = Timeline.span("wait", "waitMilliseconds", milliseconds + "ms")) {
+            if (PageReadiness.isEnabled(driver)) {
+                waitPageIdle(milliseconds);
+                return;
+            }
+            try {
+                Thread.sleep(milliseconds);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
         }
     }
 
+    /**
+     * Waits until the page has no network request or animation in progress
+     * for the configured quiet period ("page.idle.quietMillis").
+     *
+     * @param timeOutInMillis maximum time to wait
+     * @return true when the page became idle, false on timeout
+     */
+    protected boolean waitPageIdle(long timeOutInMillis) {
+        return PageReadiness.waitForIdle(driver, timeOutInMillis);
+    }
+
     protected WebElement waitElement(By by, int timeOutInSeconds) {
-        Wait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .pollingEvery(200, TimeUnit.MILLISECONDS)
-                .ignoring(NoSuchElementException.class)
-                .ignoring(StaleElementReferenceException.class);
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+        try (Timeline.Span span = Timeline.span("wait", "waitElement", by)) {
+            String key = WaitTelemetry.key(getClass(), "visible", by);
+            long polling = WaitTelemetry.pollingFor(key, 200);
+
+            return adaptiveWait(key, timeOutInSeconds, element -> true, timeout ->
+                    DomWaits.visible(driver, by, timeout, remaining -> {
+                        Wait<WebDriver> wait = new FluentWait<>(driver)
+                                .withTimeout(remaining, TimeUnit.MILLISECONDS)
+                                .pollingEvery(polling, TimeUnit.MILLISECONDS)
+                                .ignoring(NoSuchElementException.class)
+                                .ignoring(StaleElementReferenceException.class);
+                        return wait.until(ExpectedConditions.visibilityOfElementLocated(by));
+                    }));
+        }
     }
 
     protected WebElement waitElement(WebElement webElement, int timeOutInSeconds) {
-        Wait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .pollingEvery(10, TimeUnit.MILLISECONDS)
-                .ignoring(NoSuchElementException.class)
-                .ignoring(StaleElementReferenceException.class)
-                .ignoring(ElementNotVisibleException.class);
-        return wait.until(ExpectedConditions.visibilityOf(webElement));
+        try (Timeline.Span span = Timeline.span("wait", "waitElement", webElement)) {
+            By by = Locators.of(webElement);
+            String key = WaitTelemetry.key(getClass(), "visible", by);
+            long polling = WaitTelemetry.pollingFor(key, 10);
+
+            return adaptiveWait(key, timeOutInSeconds, element -> true, timeout ->
+                    DomWaits.visible(driver, by, timeout, remaining -> {
+                        Wait<WebDriver> wait = new FluentWait<>(driver)
+                                .withTimeout(remaining, TimeUnit.MILLISECONDS)
+                                .pollingEvery(polling, TimeUnit.MILLISECONDS)
+                                .ignoring(NoSuchElementException.class)
+                                .ignoring(StaleElementReferenceException.class)
+                                .ignoring(ElementNotVisibleException.class);
+                        return wait.until(ExpectedConditions.visibilityOf(webElement));
+                    }));
+        }
     }
 
     protected List<WebElement> waitElements(By by, int timeOutInSeconds) {
-        Wait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .pollingEvery(10, TimeUnit.MILLISECONDS)
-                .ignoring(NoSuchElementException.class)
-                .ignoring(StaleElementReferenceException.class);
-        return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(by));
+        try (Timeline.Span span = Timeline.span("wait", "waitElements", by)) {
+            String key = WaitTelemetry.key(getClass(), "allVisible", by);
+            long polling = WaitTelemetry.pollingFor(key, 10);
+
+            return adaptiveWait(key, timeOutInSeconds, elements -> true, timeout ->
+                    DomWaits.allVisible(driver, by, timeout, remaining -> {
+                        Wait<WebDriver> wait = new FluentWait<>(driver)
+                                .withTimeout(remaining, TimeUnit.MILLISECONDS)
+                                .pollingEvery(polling, TimeUnit.MILLISECONDS)
+                                .ignoring(NoSuchElementException.class)
+                                .ignoring(StaleElementReferenceException.class);
+                        return wait.until(ExpectedConditions.visibilityOfAllElementsLocatedBy(by));
+                    }));
+        }
     }
 
     protected boolean waitNotPresent(By by, int timeOutInSeconds) {
-        Wait<WebDriver> wait = new FluentWait<>(driver)
-                .withTimeout(timeOutInSeconds, TimeUnit.SECONDS)
-                .pollingEvery(100, TimeUnit.MILLISECONDS)
-                .ignoring(NoSuchElementException.class)
-                .ignoring(StaleElementReferenceException.class);
-        try {
-            return wait.until(ExpectedConditions.invisibilityOfElementLocated(by));
-        } catch (Exception e) {
-            return false;
+        try (Timeline.Span span = Timeline.span("wait", "waitNotPresent", by)) {
+            String key = WaitTelemetry.key(getClass(), "invisible", by);
+            long polling = WaitTelemetry.pollingFor(key, 100);
+
+            return adaptiveWait(key, timeOutInSeconds, notPresent -> notPresent, timeout ->
+                    DomWaits.invisible(driver, by, timeout, remaining -> {
+                        Wait<WebDriver> wait = new FluentWait<>(driver)
+                                .withTimeout(remaining, TimeUnit.MILLISECONDS)
+                                .pollingEvery(polling, TimeUnit.MILLISECONDS)
+                                .ignoring(NoSuchElementException.class)
+                                .ignoring(StaleElementReferenceException.class);
+                        try {
+                            return wait.until(ExpectedConditions.invisibilityOfElementLocated(by));
+                        } catch (Exception e) {
+                            return false;
+                        }
+                    }));
+        }
+    }
+
+    /**
+     * Runs a wait with the timeout learned for its key (see WaitTelemetry) and records how long it took.
+     * A wait that did not succeed is recorded as a timeout, so the learned timeout can grow,
+     * and, when the learned timeout was shorter than the requested one, retried once with the requested one.
+     *
+     * @param key              telemetry key of the wait
+     * @param timeOutInSeconds timeout requested by the page object
+     * @param succeeded        tells whether the result of the wait is a success
+     * @param wait             the wait, for a given timeout in seconds
+     * @return the result of the last attempt
+     * @throws TimeoutException when the last attempt timed out
+     */
+    private <T> T adaptiveWait(String key, int timeOutInSeconds, Predicate<T> succeeded, IntFunction<T> wait) {
+        long start = System.nanoTime();
+        int timeout = WaitTelemetry.timeoutFor(key, timeOutInSeconds);
+        while (true) {
+            boolean last = timeout >= timeOutInSeconds;
+            try {
+                T result = wait.apply(timeout);
+                if (succeeded.test(result)) {
+                    WaitTelemetry.record(key, start);
+                    return result;
+                }
+                WaitTelemetry.recordTimeout(key, timeout);
+                if (last) {
+                    return result;
+                }
+            } catch (TimeoutException e) {
+                WaitTelemetry.recordTimeout(key, timeout);
+                if (last) {
+                    throw e;
+                }
+            }
+            timeout = timeOutInSeconds;
         }
     }
 
     protected boolean waitUntilElementHasValue(WebElement element, String text) {
-        try {
-            waitMilliseconds(500);
-            Wait<WebDriver> wait = new FluentWait<>(driver)
-                    .withTimeout(1, TimeUnit.SECONDS)
-                    .pollingEvery(200, TimeUnit.MILLISECONDS)
-                    .ignoring(NoSuchElementException.class)
-                    .ignoring(StaleElementReferenceException.class);
-            return wait.until(ExpectedConditions.textToBePresentInElementValue(element, text));
-        } catch (Exception e) {
-            return false;
+        try (Timeline.Span span = Timeline.span("wait", "waitUntilElementHasValue", element)) {
+            return DomWaits.hasValue(driver, Locators.of(element), text, 2, remaining -> {
+                try {
+                    waitMilliseconds((int) Math.min(500, remaining));
+                    Wait<WebDriver> wait = new FluentWait<>(driver)
+                            .withTimeout(Math.min(1000, Math.max(0, remaining - 500)), TimeUnit.MILLISECONDS)
+                            .pollingEvery(200, TimeUnit.MILLISECONDS)
+                            .ignoring(NoSuchElementException.class)
+                            .ignoring(StaleElementReferenceException.class);
+                    return wait.until(ExpectedConditions.textToBePresentInElementValue(element, text));
+                } catch (Exception e) {
+                    return false;
+                }
+            });
         }
     }
 
@@ -102,13 +214,46 @@ public class BasePage {
     }
 
     protected boolean isElementDisplayed(By by) {
-        return driver.findElements(by).stream()
-                .findFirst()
-                .map(WebElement::isDisplayed)
-                .orElse(false);
+        return queryElements(Collections.singletonList(by)).get(by).isDisplayed();
+    }
+
+    /**
+     * Reads presence, visibility, text and the given attributes of many locators
+     * in a single round trip to the browser.
+     *
+     * @param locators   locators to read
+     * @param attributes attributes (or properties, such as "value") read from the first element of each locator
+     * @return state of each locator, in the given order
+     * @throws IllegalArgumentException when a locator is given twice
+     */
+    protected Map<By, ElementState> queryElements(List<By> locators, String... attributes) {
+        return ElementQueries.query(driver, locators, attributes);
+    }
+
+    /**
+     * Same as {@link #queryElements(List, String...)} for XPath expressions.
+     *
+     * @param xpaths     XPath expressions to read
+     * @param attributes attributes read from the first element of each expression
+     * @return state of each expression, in the given order
+     */
+    protected Map<String, ElementState> queryXPaths(List<String> xpaths, String... attributes) {
+        List<By> locators = xpaths.stream().map(By::xpath).collect(Collectors.toList());
+        Map<By, ElementState> states = queryElements(locators, attributes);
+
+        Map<String, ElementState> result = new LinkedHashMap<>();
+        for (int i = 0; i < xpaths.size(); i++) {
+            result.put(xpaths.get(i), states.get(locators.get(i)));
+        }
+        return result;
     }
 
     protected void aguardarLoading() {
+        if (PageReadiness.isEnabled(driver)) {
+            waitPageIdle(TimeUnit.SECONDS.toMillis(120));
+            waitNotPresent(By.id("loading"), 120);
+            return;
+        }
         try {
             waitElement(By.id("loading"), 3);
         } catch (Exception ignored) { }
@@ -116,21 +261,15 @@ public class BasePage {
     }
 
     private String saveScreenshotInRelatoriosPath() {
-        String timestamp = LocalDateTime.now()
-                .format(DateTimeFormatter.ofPattern("ddMMyyyy_HHmmssSSS"));
-        String screenshotName = timestamp + ".png";
-        try {
-            File scrFile = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            FileUtils.copyFile(scrFile, new File("target/report/html/img/" + screenshotName));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        try (Timeline.Span span = Timeline.span("screenshot", "saveScreenshot", null)) {
+            byte[] screenshot = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            return ScreenshotWriter.save(screenshot);
         }
-        return screenshotName;
     }
 
     protected void log(String log) {
         String screenshotName = saveScreenshotInRelatoriosPath();
-        try {
+        try (Timeline.Span span = Timeline.span("report", "log", null)) {
             extentTest.pass(log, MediaEntityBuilder
                     .createScreenCaptureFromPath("img/" + screenshotName)
                     .build());
@@ -141,7 +280,7 @@ public class BasePage {
 
     public void logPrintFail(String log) {
         String screenshotName = saveScreenshotInRelatoriosPath();
-        try {
+        try (Timeline.Span span = Timeline.span("report", "logPrintFail", null)) {
             extentTest.fail(log, MediaEntityBuilder
                     .createScreenCaptureFromPath("img/" + screenshotName)
                     .build());
@@ -171,8 +310,23 @@ public class BasePage {
     protected void childLogInfo(ExtentTest child, String log) { child.info(log); }
 
     public void aguardarDownloadArquivo() {
-        String downloadPath = System.getProperty("user.dir") + "/target/temp";
-        Utils.waitForFileExistsInPath(downloadPath, 10);
-        waitMilliseconds(500);
+        aguardarDownloadArquivo("*");
+    }
+
+    /**
+     * Waits for a completed download of the current scenario whose name matches the glob.
+     *
+     * @param glob expected file name (e.g. "*.pdf")
+     * @return the downloaded file, or null when none was completed in 10 seconds
+     */
+    public Path aguardarDownloadArquivo(String glob) {
+        try (Timeline.Span span = Timeline.span("wait", "download", glob)) {
+            Path file = Downloads.await(Downloads.current(), glob, 10);
+            if (file == null) {
+                System.err.println("No file " + glob + " was downloaded in path - " + Downloads.current()
+                        + " after 10 seconds.");
+            }
+            return file;
+        }
     }
 }
@@ -1,7 +1,6 @@
 package com.everis.pages;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.support.PageFactory;
 
 import com.everis.util.Hooks;
 
@@ -13,11 +12,11 @@ import com.everis.util.Hooks;
 public class CarrinhoPage extends BasePage {
 
     /**
-     * Constructor initializes the page elements using Selenium's PageFactory.
+     * Constructor initializes the page elements using the cached PageFactory metadata of PageObjects.
      * This links the current WebDriver instance to this page object.
      */
     public CarrinhoPage() {
-        PageFactory.initElements(Hooks.getDriver(), this);
+        PageObjects.initElements(Hooks.getDriver(), this);
     }
 
     /**
@@ -2,7 +2,6 @@ package com.everis.pages;
 
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
 import com.everis.util.Hooks;
 
@@ -24,10 +23,10 @@ public class HomePage extends BasePage {
 
     /**
      * Constructor initializes the web elements on this page
-     * using Selenium's PageFactory.
+     * using the cached PageFactory metadata of PageObjects.
      */
     public HomePage() {
-        PageFactory.initElements(Hooks.getDriver(), this);
+        PageObjects.initElements(Hooks.getDriver(), this);
     }
 
     /**
@@ -0,0 +1,231 @@
+package com.everis.pages;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.FindAll;
+import org.openqa.selenium.support.FindBy;
+import org.openqa.selenium.support.FindBys;
+import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.pagefactory.Annotations;
+
+import com.everis.util.Hooks;
+
+/**
+ * PageObjects creates and initializes page objects with less work than PageFactory.
+ * - The annotated fields of each page class are parsed only once and their locators are cached.
+ * - Element proxies keep the element found on first use and find it again only when it becomes stale.
+ * - {@link #get(Class)} reuses the same page instance during a scenario (see {@link #clear()}).
+ *
+ * Disabled with -Dpage.cache=false, which falls back to a new page and PageFactory on every call.
+ */
+public class PageObjects {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("page.cache", "true"));
+
+    private static final Map<Class<?>, List<LocatedField>> metadata = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<Class<?>, BasePage>> pages = ThreadLocal.withInitial(HashMap::new);
+
+    private PageObjects() { }
+
+    /**
+     * Returns the page object of the given class for the current scenario,
+     * creating it when it does not exist yet or the scenario browser changed.
+     *
+     * @param pageClass page object class, with a public no-args constructor
+     * @return page instance bound to the current browser
+     */
+    public static <T extends BasePage> T get(Class<T> pageClass) {
+        if (!ENABLED) {
+            return newPage(pageClass);
+        }
+        BasePage page = pages.get().get(pageClass);
+        if (page == null || page.driver != Hooks.getDriver()) {
+            page = newPage(pageClass);
+            pages.get().put(pageClass, page);
+        }
+        return pageClass.cast(page);
+    }
+
+    /**
+     * Forgets the page instances of the current scenario.
+     */
+    public static void clear() {
+        pages.remove();
+    }
+
+    /**
+     * Replacement for {@link PageFactory#initElements(WebDriver, Object)} that reads
+     * the locators of the page class from the cache.
+     *
+     * @param driver browser used to find the elements
+     * @param page   page object to initialize
+     */
+    public static void initElements(WebDriver driver, Object page) {
+        if (!ENABLED) {
+            PageFactory.initElements(driver, page);
+            return;
+        }
+
+        for (LocatedField located : metadata.computeIfAbsent(page.getClass(), PageObjects::parse)) {
+            ClassLoader loader = page.getClass().getClassLoader();
+            Object proxy = located.list
+                    ? Proxy.newProxyInstance(loader, new Class<?>[] { List.class },
+                            new ElementListHandler(driver, located.by))
+                    : Proxy.newProxyInstance(loader, new Class<?>[] { WebElement.class, WrapsElement.class, Locatable.class },
+                            new ElementHandler(driver, located.by));
+            try {
+                located.field.set(page, proxy);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static <T> T newPage(Class<T> pageClass) {
+        try {
+            return pageClass.getDeclaredConstructor().newInstance();
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Finds the fields PageFactory would decorate, in the page class and its superclasses.
+     */
+    private static List<LocatedField> parse(Class<?> pageClass) {
+        List<LocatedField> fields = new ArrayList<>();
+        for (Class<?> type = pageClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                boolean element = WebElement.class.equals(field.getType());
+                boolean list = isElementList(field);
+                if (element || list) {
+                    field.setAccessible(true);
+                    fields.add(new LocatedField(field, new Annotations(field).buildBy(), list));
+                }
+            }
+        }
+        return Collections.unmodifiableList(fields);
+    }
+
+    private static boolean isElementList(Field field) {
+        if (!List.class.equals(field.getType())) {
+            return false;
+        }
+        Type type = field.getGenericType();
+        if (!(type instanceof ParameterizedType)
+                || !WebElement.class.equals(((ParameterizedType) type).getActualTypeArguments()[0])) {
+            return false;
+        }
+        return field.getAnnotation(FindBy.class) != null
+                || field.getAnnotation(FindBys.class) != null
+                || field.getAnnotation(FindAll.class) != null;
+    }
+
+    /**
+     * Page object field with its parsed locator.
+     */
+    private static class LocatedField {
+
+        private final Field field;
+        private final By by;
+        private final boolean list;
+
+        private LocatedField(Field field, By by, boolean list) {
+            this.field = field;
+            this.by = by;
+            this.list = list;
+        }
+    }
+
+    /**
+     * Proxy of a single element: finds it on first use, keeps it,
+     * and finds it again once when a call fails because it became stale.
+     */
+    private static class ElementHandler implements InvocationHandler {
+
+        private final SearchContext searchContext;
+        private final By by;
+        private WebElement element;
+
+        private ElementHandler(SearchContext searchContext, By by) {
+            this.searchContext = searchContext;
+            this.by = by;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if ("toString".equals(method.getName()) && method.getParameterCount() == 0) {
+                return "Proxy element for: " + by;
+            }
+            if ("getWrappedElement".equals(method.getName())) {
+                return find(false);
+            }
+            try {
+                return method.invoke(find(false), args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                    throw e.getCause();
+                }
+            }
+            try {
+                return method.invoke(find(true), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private synchronized WebElement find(boolean refresh) {
+            if (element == null || refresh) {
+                element = searchContext.findElement(by);
+            }
+            return element;
+        }
+    }
+
+    /**
+     * Proxy of an element list: finds the elements again on every use.
+     */
+    private static class ElementListHandler implements InvocationHandler {
+
+        private final SearchContext searchContext;
+        private final By by;
+
+        private ElementListHandler(SearchContext searchContext, By by) {
+            this.searchContext = searchContext;
+            this.by = by;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(searchContext.findElements(by), args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.everis.pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.ElementClickInterceptedException;
+import org.openqa.selenium.StaleElementReferenceException;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.FindBy;
-import org.openqa.selenium.support.PageFactory;
 
 import com.everis.util.Hooks;
+import com.everis.util.Retry;
 
 /**
  * ResultadoPesquisaPage represents the product search results page.
@@ -15,6 +17,9 @@ import com.everis.util.Hooks;
  */
 public class ResultadoPesquisaPage extends BasePage {
 
+    private static final Retry.Policy ADD_TO_CART = Retry.policy(3, 500,
+            StaleElementReferenceException.class, ElementClickInterceptedException.class);
+
     /** "Add to cart" button available in search results */
     @FindBy(xpath = "//*[text()='Add to cart']")
     protected WebElement addToCartButton;
@@ -25,27 +30,56 @@ public class ResultadoPesquisaPage extends BasePage {
 
     /**
      * Constructor initializes the web elements on this page
-     * using Selenium's PageFactory.
+     * using the cached PageFactory metadata of PageObjects.
      */
     public ResultadoPesquisaPage() {
-        PageFactory.initElements(Hooks.getDriver(), this);
+        PageObjects.initElements(Hooks.getDriver(), this);
+    }
+
+    /**
+     * Verifies if the product is listed in the search results.
+     *
+     * @param productName the name of the product that should be listed
+     * @return true if the product is listed, false otherwise
+     */
+    public boolean apresentouProdutoNaPesquisa(String productName) {
+        boolean isProductListed = isElementDisplayed(productName(productName));
+
+        if (isProductListed) {
+            log("The product [" + productName + "] was listed in the search results.");
+            return true;
+        }
+
+        logFail("The product [" + productName + "] should have been listed in the search results, but it was not found.");
+        return false;
     }
 
     /**
      * Adds the specified product to the shopping cart.
      * It first locates the product by its name, hovers over it,
      * then clicks on "Add to cart" and proceeds to checkout.
+     * Locating, hovering and clicking are retried when the element goes stale or the click
+     * is intercepted: in both cases the click did not reach the button, so nothing was added.
+     * Timeouts are not retried, since the click may have added the product already.
      *
      * @param productName the name of the product to be added to the cart
      */
     public void addProductToCart(String productName) {
-        WebElement productElement = driver.findElement(
-                By.xpath(".//*[@itemprop='name']/*[contains(text(), '" + productName + "')] "
-                        + "| .//*[@itemprop='name'][text()='" + productName + "']"));
+        Retry.run(ADD_TO_CART, "add product " + productName + " to cart", () -> {
+            WebElement productElement = driver.findElement(productName(productName));
 
-        moveToElement(productElement);
-        addToCartButton.click();
+            moveToElement(productElement);
+            addToCartButton.click();
+        });
         waitElement(proceedToCheckoutButton, 10).click();
         log("Added product [" + productName + "] to the cart.");
     }
+
+    /**
+     * @return locator of the name of a product in the results list
+     */
+    private By productName(String productName) {
+        return By.xpath(".//*[@itemprop='name']/*[contains(text(), '" + productName + "')] "
+                + "| .//*[@itemprop='name'][text()='" + productName + "']");
+    }
 }
@@ -3,6 +3,8 @@ package com.everis.steps;
 import org.junit.Assert;
 
 import com.everis.pages.CarrinhoPage;
+import com.everis.pages.PageObjects;
+import com.everis.util.TestData;
 
 import io.cucumber.java.pt.Entao;
 
@@ -19,7 +21,8 @@ public class CarrinhoSteps {
      */
     @Entao("^o produto \"(.*)\" deve estar presente no carrinho$")
     public void shouldDisplayExpectedProductInCart(String productName) {
-        CarrinhoPage carrinhoPage = new CarrinhoPage();
+        productName = TestData.resolve(productName);
+        CarrinhoPage carrinhoPage = PageObjects.get(CarrinhoPage.class);
         Assert.assertTrue(
                 "The product [" + productName + "] should have been displayed in the cart.",
                 carrinhoPage.apresentouProdutoEsperadoNoCarrinho(productName)
@@ -0,0 +1,24 @@
+package com.everis.steps;
+
+import com.everis.util.Checkpoints;
+
+import io.cucumber.java.pt.E;
+
+/**
+ * CheckpointSteps defines the Cucumber step that marks the end of the setup steps of a scenario.
+ * The browser state at this point is saved and restored by later scenarios tagged
+ * with the same "@checkpoint:key" (see Checkpoints).
+ */
+public class CheckpointSteps {
+
+    /**
+     * Step definition that saves the checkpoint, or ends the setup steps skipped
+     * because the checkpoint was restored.
+     *
+     * @param key the checkpoint key
+     */
+    @E("^o checkpoint \"(.*)\" foi salvo$")
+    public void checkpointReached(String key) {
+        Checkpoints.reached(key);
+    }
+}
@@ -0,0 +1,63 @@
+package com.everis.steps;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.everis.pages.CarrinhoPage;
+import com.everis.pages.HomePage;
+import com.everis.pages.PageObjects;
+import com.everis.pages.ResultadoPesquisaPage;
+import com.everis.util.Hooks;
+import com.everis.util.TestData;
+
+import io.cucumber.java.pt.Entao;
+
+/**
+ * DadosSteps defines the Cucumber step definitions that take their data from the datasets
+ * in src/test/resources/data (see TestData), instead of inline values.
+ */
+public class DadosSteps {
+
+    /**
+     * Step definition that searches, adds to the cart and checks in the cart
+     * every product of a dataset, read one row at a time. The column "nome" holds the product name.
+     * Each product is reported as a child node, and the step fails after the last one
+     * when any product failed, or when no row was read (an empty dataset, or rows already
+     * taken by other scenarios of this worker).
+     *
+     * @param dataset the dataset name
+     */
+    @Entao("^cada produto do dataset \"(.*)\" deve ser adicionado ao carrinho$")
+    public void buyEveryProduct(String dataset) {
+        String startUrl = Hooks.getDriver().getCurrentUrl();
+        List<String> failures = new ArrayList<>();
+        int rows = 0;
+
+        Map<String, String> row;
+        while ((row = TestData.next(dataset)) != null) {
+            rows++;
+            String productName = row.get("nome");
+            ExtentTest child = Hooks.getExtentTest().createNode("Product: " + productName);
+            try {
+                Hooks.getDriver().navigate().to(startUrl);
+                PageObjects.get(HomePage.class).searchProduct(productName);
+                PageObjects.get(ResultadoPesquisaPage.class).addProductToCart(productName);
+                if (PageObjects.get(CarrinhoPage.class).apresentouProdutoEsperadoNoCarrinho(productName)) {
+                    child.pass("The product [" + productName + "] was added to the cart.");
+                } else {
+                    child.fail("The product [" + productName + "] was not found in the cart.");
+                    failures.add(productName);
+                }
+            } catch (RuntimeException e) {
+                child.fail(e);
+                failures.add(productName);
+            }
+        }
+        Assert.assertTrue("No rows read from the dataset [" + dataset + "].", rows > 0);
+        Assert.assertTrue("The products " + failures + " should have been added to the cart.", failures.isEmpty());
+    }
+}
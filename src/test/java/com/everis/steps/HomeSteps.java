@@ -1,7 +1,10 @@
 package com.everis.steps;
 
 import com.everis.pages.HomePage;
+import com.everis.pages.PageObjects;
+import com.everis.util.Checkpoints;
 import com.everis.util.Hooks;
+import com.everis.util.TestData;
 
 import io.cucumber.java.pt.Dado;
 import io.cucumber.java.pt.E;
@@ -19,7 +22,10 @@ public class HomeSteps {
      */
     @Dado("^que um usuario acessa o site \"(.*)\"$")
     public void accessSite(String url) {
-        Hooks.navigateToULRChrome(url);
+        if (Checkpoints.skip("access site " + url)) {
+            return;
+        }
+        Hooks.navigateToULRChrome(TestData.resolve(url));
     }
 
     /**
@@ -30,7 +36,10 @@ public class HomeSteps {
      */
     @E("^pesquisa pelo produto \"(.*)\"$")
     public void searchProduct(String productName) {
-        HomePage homePage = new HomePage();
-        homePage.searchProduct(productName);
+        if (Checkpoints.skip("search product " + productName)) {
+            return;
+        }
+        HomePage homePage = PageObjects.get(HomePage.class);
+        homePage.searchProduct(TestData.resolve(productName));
     }
 }
@@ -1,13 +1,19 @@
 package com.everis.steps;
 
+import org.junit.Assert;
+
 import com.everis.pages.ResultadoPesquisaPage;
+import com.everis.pages.PageObjects;
+import com.everis.util.Checkpoints;
+import com.everis.util.TestData;
 
+import io.cucumber.java.pt.Entao;
 import io.cucumber.java.pt.Quando;
 
 /**
  * ResultadoPesquisaSteps defines the Cucumber step definitions
  * for actions performed on the search results page.
- * It covers adding a product from the results list to the shopping cart.
+ * It covers checking the results list and adding a product from it to the shopping cart.
  */
 public class ResultadoPesquisaSteps {
 
@@ -19,7 +25,23 @@ public class ResultadoPesquisaSteps {
      */
     @Quando("^adiciona o produto \"(.*)\" ao carrinho$")
     public void addProductToCart(String productName) {
-        ResultadoPesquisaPage resultadoPesquisaPage = new ResultadoPesquisaPage();
-        resultadoPesquisaPage.addProductToCart(productName);
+        Checkpoints.mutating("add product " + productName + " to cart");
+        ResultadoPesquisaPage resultadoPesquisaPage = PageObjects.get(ResultadoPesquisaPage.class);
+        resultadoPesquisaPage.addProductToCart(TestData.resolve(productName));
+    }
+
+    /**
+     * Step definition that asserts a product is listed in the search results.
+     *
+     * @param productName the name of the product that should be listed
+     */
+    @Entao("^o produto \"(.*)\" deve estar presente no resultado da pesquisa$")
+    public void shouldListProduct(String productName) {
+        productName = TestData.resolve(productName);
+        ResultadoPesquisaPage resultadoPesquisaPage = PageObjects.get(ResultadoPesquisaPage.class);
+        Assert.assertTrue(
+                "The product [" + productName + "] should have been listed in the search results.",
+                resultadoPesquisaPage.apresentouProdutoNaPesquisa(productName)
+        );
     }
 }
@@ -3,27 +3,47 @@ package com.everis.tests;
 import org.junit.ClassRule;
 import org.junit.runner.RunWith;
 
-import io.cucumber.junit.Cucumber;
 import io.cucumber.junit.CucumberOptions;
 import com.everis.util.Hooks;
+import com.everis.util.ScheduledCucumber;
 
 /**
  * RunnerTest is the entry point for executing Cucumber scenarios.
  * It configures the test execution options such as feature path,
  * tags, glue code, and reporting plugins.
  *
- * Uses JUnit's @RunWith to integrate with Cucumber.
+ * Uses JUnit's @RunWith to integrate with Cucumber, through ScheduledCucumber,
+ * which starts the longest scenarios of previous runs first
+ * (-Dscheduler.failuresFirst=true starts the recently failed ones first).
+ * Scenarios can be executed in parallel with the "parallel" Maven profile,
+ * the number of workers is given by the "threads" property
+ * (e.g. mvn test -Pparallel -Dthreads=8).
+ * The suite can be split between JVMs or agents with -Dshard.index and -Dshard.count
+ * (e.g. mvn test -Dshard.index=1 -Dshard.count=4); each shard publishes its results
+ * to target/shards/&lt;index&gt;, merged with mvn test -Pmerge-shards.
+ * The files each scenario touches are indexed in .bdd-cache/impact-index.tsv, to run
+ * only the scenarios affected by a change: mvn test -Pimpact -Dimpact.base=origin/main,
+ * then mvn test -Dcucumber.features=@target/impact.txt.
+ * The glue is given to Cucumber by ScheduledCucumber, from the packages of the step index
+ * generated by the build (target/test-classes/cucumber/step-index.tsv); the "glue" option
+ * below, the whole classpath, is only used when there is no index (-Dcucumber.glue overrides both).
+ * The time of each step is written to target/timeline.json (Chrome trace format)
+ * and target/timeline.prom (Prometheus text format), and the browser commands
+ * of each step to the report and target/command-log.json.
  */
-@RunWith(Cucumber.class)
+@RunWith(ScheduledCucumber.class)
 @CucumberOptions(
     features = "classpath:features",                  // Path to the feature files
     tags = "@test",                                   // Tag filter for scenarios
-    glue = {""},                                      // Package containing step definitions
+    glue = {""},                                      // Fallback only: glue comes from the step index
     monochrome = true,                                // Cleaner console output
     dryRun = false,                                   // Validates steps without running if true
     plugin = {                                        // Reporting configuration
         "json:target/cucumber.json", 
-        "rerun:target/rerun.txt"
+        "rerun:target/rerun.txt",
+        "com.everis.util.TimelinePlugin:target/timeline.json",  // Step timeline and duration histograms
+        "com.everis.util.CommandLogPlugin",                     // Browser commands per step
+        "com.everis.util.ImpactPlugin"                          // Files touched by each scenario
     }
 )
 public class RunnerTest {
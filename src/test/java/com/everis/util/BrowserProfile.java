@@ -0,0 +1,173 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.openqa.selenium.UnexpectedAlertBehaviour;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.CapabilityType;
+
+/**
+ * BrowserProfile is a named set of Chrome launch options, read from
+ * "browser-profiles.properties" in the test resources. Each key can be overridden
+ * with a system property prefixed by "browser." (e.g. -Dbrowser.desktop.maximize=false).
+ *
+ * The "headless-lean" profile runs without GPU, extensions, background work,
+ * images and web fonts, to fit more parallel browsers on the same machine.
+ */
+public class BrowserProfile {
+
+    public static final String DESKTOP = "desktop";
+    public static final String MOBILE = "mobile";
+
+    private static final String TAG_PREFIX = "@profile:";
+    private static final Properties config = load();
+
+    private final String name;
+
+    private BrowserProfile(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Returns the profile of the current scenario: the one of its tag @profile:&lt;name&gt;,
+     * the one given with -Dbrowser.profile, or the default one.
+     *
+     * @param tags           tags of the current scenario, may be empty
+     * @param defaultProfile profile used when none was selected
+     * @return the selected profile
+     * @throws IllegalArgumentException when the profile is not configured
+     */
+    public static BrowserProfile select(Iterable<String> tags, String defaultProfile) {
+        for (String tag : tags) {
+            if (tag.startsWith(TAG_PREFIX)) {
+                return named(tag.substring(TAG_PREFIX.length()));
+            }
+        }
+        return named(System.getProperty("browser.profile", defaultProfile));
+    }
+
+    /**
+     * @param name profile name
+     * @return the profile with this name
+     * @throws IllegalArgumentException when the profile is not configured
+     */
+    public static BrowserProfile named(String name) {
+        String prefix = name + ".";
+        boolean configured = config.stringPropertyNames().stream().anyMatch(key -> key.startsWith(prefix))
+                || System.getProperties().stringPropertyNames().stream().anyMatch(key -> key.startsWith("browser." + prefix));
+        if (!configured) {
+            throw new IllegalArgumentException("Browser profile not found: " + name);
+        }
+        return new BrowserProfile(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Builds the Chrome options of the profile.
+     *
+     * @param commonPrefs preferences applied to every profile, before the profile ones
+     * @return the Chrome options
+     */
+    public ChromeOptions toChromeOptions(Map<String, Object> commonPrefs) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments(list("arguments"));
+
+        Map<String, Object> prefs = new HashMap<>(commonPrefs);
+        prefs.putAll(prefs());
+        options.setExperimentalOption("prefs", prefs);
+
+        String device = get("mobileEmulation");
+        if (device != null) {
+            options.setExperimentalOption("mobileEmulation", Collections.singletonMap("deviceName", device));
+        }
+        if (Boolean.parseBoolean(get("acceptAlerts"))) {
+            options.setCapability(CapabilityType.UNEXPECTED_ALERT_BEHAVIOUR, UnexpectedAlertBehaviour.ACCEPT);
+        }
+        return options;
+    }
+
+    /**
+     * Applies the settings that need a running browser: window size and blocked URLs.
+     *
+     * @param driver browser started with {@link #toChromeOptions(Map)}
+     */
+    public void configure(WebDriver driver) {
+        if (Boolean.parseBoolean(get("maximize"))) {
+            driver.manage().window().maximize();
+        }
+
+        List<String> blockedUrls = list("blockedUrls");
+        if (!blockedUrls.isEmpty()) {
+            try {
+                DevTools.execute(driver, "Network.enable", Collections.emptyMap());
+                DevTools.execute(driver, "Network.setBlockedURLs", Collections.singletonMap("urls", blockedUrls));
+            } catch (WebDriverException e) {
+                System.err.println("Error blocking URLs of browser profile " + name + ": " + e);
+            }
+        }
+    }
+
+    private String get(String key) {
+        return System.getProperty("browser." + name + "." + key, config.getProperty(name + "." + key));
+    }
+
+    private List<String> list(String key) {
+        String value = get(key);
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(Arrays.asList(value.trim().split("\\s+")));
+    }
+
+    private Map<String, Object> prefs() {
+        String prefix = name + ".prefs.";
+        Map<String, Object> prefs = new HashMap<>();
+        for (String key : config.stringPropertyNames()) {
+            if (key.startsWith(prefix)) {
+                prefs.put(key.substring(prefix.length()), typed(get(key.substring(name.length() + 1))));
+            }
+        }
+        for (String key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith("browser." + prefix)) {
+                prefs.put(key.substring(("browser." + prefix).length()), typed(System.getProperty(key)));
+            }
+        }
+        return prefs;
+    }
+
+    private static Object typed(String value) {
+        if ("true".equalsIgnoreCase(value) || "false".equalsIgnoreCase(value)) {
+            return Boolean.valueOf(value);
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+
+    private static Properties load() {
+        Properties properties = new Properties();
+        try (InputStream in = BrowserProfile.class.getClassLoader().getResourceAsStream("browser-profiles.properties")) {
+            if (in != null) {
+                properties.load(in);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,492 @@
+package com.everis.util;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Proxy;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * CachingProxy is a local HTTP proxy for the browsers, which stores the responses on disk
+ * in "proxy.cache.dir" (default ".bdd-cache/http"), keyed by method and URL.
+ * The mode is chosen with -Dproxy.mode:
+ * - off (default): the browsers connect directly;
+ * - record: every request goes to the network and its response is stored;
+ * - replay: responses are served from the disk only, a miss answers 504 without using the network;
+ * - auto: stored responses are served, misses go to the network and are stored.
+ *
+ * Only GET responses are stored, without their cookies (Set-Cookie), so scenarios never share
+ * a server session through the store. Session-dependent content is neither stored nor served
+ * from the store: responses with "Cache-Control: no-store" or "private", or "Vary: *" or
+ * "Vary: Cookie", and requests that send cookies, except for the URLs matching "proxy.cache.allow"
+ * (a regular expression, by default static assets such as scripts, stylesheets, images and fonts).
+ * Stored responses expire after "proxy.cache.ttlMinutes" (default 10080, 0 to never expire) and
+ * the least recently used are removed when the store exceeds "proxy.cache.maxBytes" (default
+ * 512 MB). HTTPS goes through as a tunnel and is not stored, except in replay mode, where it is
+ * refused.
+ */
+public class CachingProxy {
+
+    private static final String MODE = System.getProperty("proxy.mode", "off").toLowerCase(Locale.ROOT);
+    private static final int PORT = Integer.getInteger("proxy.port", 0);
+    private static final Path DIRECTORY = Paths.get(System.getProperty("proxy.cache.dir", ".bdd-cache/http"));
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(Long.getLong("proxy.cache.ttlMinutes", 10080L));
+    private static final long MAX_BYTES = Long.getLong("proxy.cache.maxBytes", 512L * 1024 * 1024);
+    private static final Pattern ALLOW = Pattern.compile(System.getProperty("proxy.cache.allow",
+            "(?i)[^?#]+\\.(css|js|png|jpe?g|gif|svg|webp|ico|woff2?|ttf|eot)([?#].*)?"));
+
+    private static final Set<Integer> CACHEABLE_STATUS = new HashSet<>(Arrays.asList(200, 203, 204, 300, 301, 404, 410));
+    private static final Set<String> NOT_STORED = new HashSet<>(Arrays.asList("set-cookie", "set-cookie2"));
+    private static final Set<String> HOP_BY_HOP = new HashSet<>(Arrays.asList("connection", "proxy-connection",
+            "keep-alive", "proxy-authorization", "proxy-authenticate", "te", "trailer", "transfer-encoding",
+            "upgrade", "host", "content-length"));
+
+    private static final AtomicLong storedBytes = new AtomicLong(-1);
+
+    private static ServerSocket serverSocket;
+    private static ExecutorService executor;
+
+    private CachingProxy() { }
+
+    /**
+     * @return true when a proxy mode other than "off" was given with -Dproxy.mode
+     */
+    public static boolean isEnabled() {
+        return !"off".equals(MODE);
+    }
+
+    /**
+     * Starts the proxy, when it is not running yet.
+     *
+     * @return the address to give to the browser, as "host:port"
+     */
+    public static synchronized String start() {
+        if (serverSocket == null) {
+            if (!Arrays.asList("record", "replay", "auto").contains(MODE)) {
+                throw new IllegalArgumentException("Invalid proxy.mode: " + MODE + " (off, record, replay or auto)");
+            }
+            try {
+                Files.createDirectories(DIRECTORY);
+                evict();
+                serverSocket = new ServerSocket(PORT, 50, InetAddress.getLoopbackAddress());
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "caching-proxy");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.submit(CachingProxy::accept);
+            System.out.println("Caching proxy (" + MODE + ") listening on port " + serverSocket.getLocalPort());
+        }
+        return "127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Stops the proxy and applies the size limit to the store.
+     */
+    public static synchronized void stop() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            System.err.println("Error closing caching proxy: " + e);
+        }
+        executor.shutdownNow();
+        serverSocket = null;
+        executor = null;
+        evict();
+    }
+
+    private static void accept() {
+        ServerSocket server = serverSocket;
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                executor.submit(() -> handle(socket));
+            } catch (SocketException e) {
+                return;
+            } catch (Exception e) {
+                System.err.println("Error accepting proxy connection: " + e);
+            }
+        }
+    }
+
+    private static void handle(Socket socket) {
+        try (Socket client = socket) {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            OutputStream out = client.getOutputStream();
+
+            String[] requestLine = readLine(in).split(" ");
+            Map<String, String> headers = readHeaders(in);
+            if (requestLine.length < 3) {
+                return;
+            }
+            String method = requestLine[0];
+            String url = requestLine[1];
+
+            if ("CONNECT".equals(method)) {
+                tunnel(client, in, out, url);
+                return;
+            }
+            if (!url.startsWith("http://")) {
+                write(out, new Response(400, new LinkedHashMap<>(), "Not a proxy request".getBytes(StandardCharsets.UTF_8)), "ERROR");
+                return;
+            }
+
+            byte[] body;
+            String transferEncoding = headers.get("transfer-encoding");
+            if (transferEncoding == null) {
+                int length = headers.containsKey("content-length") ? Integer.parseInt(headers.get("content-length")) : 0;
+                body = IOUtils.toByteArray(in, length);
+            } else if ("chunked".equalsIgnoreCase(transferEncoding)) {
+                body = readChunked(in);
+            } else {
+                write(out, new Response(501, new LinkedHashMap<>(),
+                        ("Unsupported Transfer-Encoding: " + transferEncoding).getBytes(StandardCharsets.UTF_8)), "ERROR");
+                return;
+            }
+            boolean cacheable = "GET".equals(method) && (!headers.containsKey("cookie") || ALLOW.matcher(url).matches());
+
+            Response cached = cacheable && !"record".equals(MODE) ? read(key(method, url)) : null;
+            if (cached != null) {
+                write(out, cached, "HIT");
+            } else if ("replay".equals(MODE)) {
+                write(out, new Response(504, new LinkedHashMap<>(),
+                        ("Not recorded: " + method + " " + url).getBytes(StandardCharsets.UTF_8)), "MISS");
+            } else {
+                Response response = fetch(method, url, headers, body);
+                if (cacheable && CACHEABLE_STATUS.contains(response.status) && isStorable(response, url)) {
+                    store(key(method, url), response);
+                }
+                write(out, response, "MISS");
+            }
+        } catch (Exception e) {
+            System.err.println("Error in caching proxy: " + e);
+        }
+    }
+
+    /**
+     * Forwards an HTTPS connection as is, it cannot be stored without decrypting it.
+     */
+    private static void tunnel(Socket client, InputStream in, OutputStream out, String authority) throws IOException {
+        if ("replay".equals(MODE)) {
+            out.write("HTTP/1.1 403 Forbidden\r\nConnection: close\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            return;
+        }
+        int separator = authority.lastIndexOf(':');
+        try (Socket upstream = new Socket(authority.substring(0, separator),
+                Integer.parseInt(authority.substring(separator + 1)))) {
+            out.write("HTTP/1.1 200 Connection established\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+            out.flush();
+            executor.submit(() -> copyQuietly(in, upstream));
+            IOUtils.copy(upstream.getInputStream(), out);
+        } catch (SocketException e) {
+            // One side closed the tunnel
+        }
+    }
+
+    private static void copyQuietly(InputStream in, Socket upstream) {
+        try {
+            IOUtils.copy(in, upstream.getOutputStream());
+            upstream.shutdownOutput();
+        } catch (IOException e) {
+            // One side closed the tunnel
+        }
+    }
+
+    private static Response fetch(String method, String url, Map<String, String> headers, byte[] body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection(Proxy.NO_PROXY);
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setRequestMethod(method);
+        headers.forEach((name, value) -> {
+            if (!HOP_BY_HOP.contains(name)) {
+                connection.setRequestProperty(name, value);
+            }
+        });
+        if (body.length > 0) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        // Read by position, so repeated headers (e.g. Set-Cookie) keep their values and order
+        Map<String, List<String>> responseHeaders = new LinkedHashMap<>();
+        for (int i = 1; connection.getHeaderFieldKey(i) != null; i++) {
+            String name = connection.getHeaderFieldKey(i);
+            if (!HOP_BY_HOP.contains(name.toLowerCase(Locale.ROOT))) {
+                responseHeaders.computeIfAbsent(name, n -> new ArrayList<>()).add(connection.getHeaderField(i));
+            }
+        }
+        InputStream responseBody = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        byte[] bytes = responseBody == null ? new byte[0] : IOUtils.toByteArray(responseBody);
+        connection.disconnect();
+        return new Response(status, responseHeaders, bytes);
+    }
+
+    /**
+     * Tells whether a response may be shared by every session: not marked no-store or private,
+     * nor varying by cookie, unless its URL is allowed.
+     */
+    private static boolean isStorable(Response response, String url) {
+        if (ALLOW.matcher(url).matches()) {
+            return true;
+        }
+        for (Map.Entry<String, List<String>> header : response.headers.entrySet()) {
+            String name = header.getKey().toLowerCase(Locale.ROOT);
+            for (String value : header.getValue()) {
+                String lower = value.toLowerCase(Locale.ROOT);
+                if ("cache-control".equals(name) && (lower.contains("no-store") || lower.contains("private"))) {
+                    return false;
+                }
+                if ("vary".equals(name) && (lower.contains("*") || lower.contains("cookie"))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void write(OutputStream out, Response response, String cacheStatus) throws IOException {
+        StringBuilder head = new StringBuilder("HTTP/1.1 ").append(response.status).append(' ')
+                .append(reason(response.status)).append("\r\n");
+        response.headers.forEach((name, values) -> values.forEach(value ->
+                head.append(name).append(": ").append(value).append("\r\n")));
+        head.append("Content-Length: ").append(response.body.length).append("\r\n")
+                .append("X-Cache: ").append(cacheStatus).append("\r\n")
+                .append("Connection: close\r\n\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        out.write(response.body);
+        out.flush();
+    }
+
+    private static String key(String method, String url) {
+        return Utils.sha256Hex((method + " " + url).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a stored response, marking it as recently used.
+     *
+     * @return the response, or null when it is not stored or expired
+     */
+    private static Response read(String key) {
+        Path file = DIRECTORY.resolve(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            long storedAt = in.readLong();
+            if (TTL_MILLIS > 0 && System.currentTimeMillis() - storedAt > TTL_MILLIS) {
+                return null;
+            }
+            int status = in.readInt();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                String value = in.readUTF();
+                if (!NOT_STORED.contains(name.toLowerCase(Locale.ROOT))) {
+                    headers.computeIfAbsent(name, n -> new ArrayList<>()).add(value);
+                }
+            }
+            byte[] body = IOUtils.toByteArray(in);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Response(status, headers, body);
+        } catch (IOException e) {
+            System.err.println("Error reading cached response " + key + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a response, one entry per header value, without the headers that set cookies.
+     */
+    private static void store(String key, Response response) {
+        try {
+            List<String[]> headers = new ArrayList<>();
+            response.headers.forEach((name, values) -> {
+                if (!NOT_STORED.contains(name.toLowerCase(Locale.ROOT))) {
+                    values.forEach(value -> headers.add(new String[] { name, value }));
+                }
+            });
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(response.body.length + 512);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(response.status);
+                out.writeInt(headers.size());
+                for (String[] header : headers) {
+                    out.writeUTF(header[0]);
+                    out.writeUTF(header[1]);
+                }
+                out.write(response.body);
+            }
+
+            Path file = DIRECTORY.resolve(key);
+            Path temp = Files.createTempFile(DIRECTORY, key, ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            long previous = Files.exists(file) ? Files.size(file) : 0;
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            if (storedBytes.get() >= 0 && storedBytes.addAndGet(bytes.size() - previous) > MAX_BYTES) {
+                evict();
+            }
+        } catch (IOException e) {
+            System.err.println("Error storing response " + key + ": " + e);
+        }
+    }
+
+    /**
+     * Removes the least recently used responses until the store is below 90% of its limit.
+     */
+    private static synchronized void evict() {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(DIRECTORY)) {
+            files = list.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(".tmp"))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            System.err.println("Error listing cached responses: " + e);
+            return;
+        }
+
+        Map<Path, long[]> stats = new LinkedHashMap<>();
+        long total = 0;
+        for (Path file : files) {
+            try {
+                long size = Files.size(file);
+                stats.put(file, new long[] { size, Files.getLastModifiedTime(file).toMillis() });
+                total += size;
+            } catch (IOException e) {
+                // Removed by another thread
+            }
+        }
+
+        if (total > MAX_BYTES) {
+            List<Path> byUse = new ArrayList<>(stats.keySet());
+            byUse.sort((a, b) -> Long.compare(stats.get(a)[1], stats.get(b)[1]));
+            for (Path file : byUse) {
+                if (total <= MAX_BYTES * 0.9) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(file);
+                    total -= stats.get(file)[0];
+                } catch (IOException e) {
+                    System.err.println("Error removing cached response " + file + ": " + e);
+                }
+            }
+        }
+        storedBytes.set(total);
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Reads a request body sent with "Transfer-Encoding: chunked", discarding its trailers.
+     */
+    private static byte[] readChunked(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        while (true) {
+            String sizeLine = readLine(in);
+            int extension = sizeLine.indexOf(';');
+            int size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            if (size == 0) {
+                readHeaders(in);
+                return body.toByteArray();
+            }
+            body.write(IOUtils.toByteArray(in, size));
+            readLine(in);
+        }
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while (!(line = readLine(in)).isEmpty()) {
+            int separator = line.indexOf(':');
+            if (separator > 0) {
+                headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ROOT), line.substring(separator + 1).trim());
+            }
+        }
+        return headers;
+    }
+
+    private static String reason(int status) {
+        switch (status) {
+            case 200: return "OK";
+            case 204: return "No Content";
+            case 301: return "Moved Permanently";
+            case 302: return "Found";
+            case 304: return "Not Modified";
+            case 400: return "Bad Request";
+            case 403: return "Forbidden";
+            case 404: return "Not Found";
+            case 501: return "Not Implemented";
+            case 504: return "Gateway Timeout";
+            default: return "Status";
+        }
+    }
+
+    /**
+     * Status, headers and body of an HTTP response.
+     */
+    private static class Response {
+
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        private Response(int status, Map<String, List<String>> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.everis.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import com.google.gson.Gson;
+
+/**
+ * Checkpoints saves the state of the browser (URL, cookies, local and session storage)
+ * after the setup steps of a scenario, and restores it in later scenarios with the same precondition,
+ * which then skip those steps.
+ * - A scenario declares its precondition with the tag "@checkpoint:&lt;key&gt;" and the step
+ *   'E o checkpoint "&lt;key&gt;" foi salvo' after its setup steps.
+ * - The first scenario of the run with a key runs its setup steps and saves the checkpoint.
+ * - The next ones start from the saved state: the setup steps before the checkpoint step
+ *   only log that they were restored (see {@link #skip(String)}).
+ * - Only idempotent setup steps (navigation, search) may come before a checkpoint: the state is
+ *   shared by every scenario with the key. A step that changes the application state
+ *   (e.g. adding to the cart) calls {@link #mutating(String)}, and a checkpoint after it fails.
+ *
+ * Checkpoints live for the run only. Disabled with -Dcheckpoints=false.
+ */
+public class Checkpoints {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("checkpoints", "true"));
+    private static final String TAG = "@checkpoint:";
+    private static final Gson gson = new Gson();
+
+    private static final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> restoring = new ThreadLocal<>();
+    private static final ThreadLocal<String> mutated = new ThreadLocal<>();
+
+    private Checkpoints() { }
+
+    /**
+     * Returns the checkpoint key declared by the tags of a scenario.
+     *
+     * @param tags scenario tags
+     * @return the key, or null when the scenario has no checkpoint tag
+     */
+    public static String keyOf(Collection<String> tags) {
+        for (String tag : tags) {
+            if (tag.startsWith(TAG)) {
+                return tag.substring(TAG.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Restores the checkpoint declared by the scenario, when it was already saved in this run,
+     * in a browser started for the scenario.
+     *
+     * @param tags scenario tags
+     * @return true when the checkpoint was restored and its setup steps must be skipped
+     */
+    public static boolean restore(Collection<String> tags) {
+        String key = keyOf(tags);
+        Snapshot snapshot = key != null && ENABLED ? snapshots.get(key) : null;
+        if (snapshot == null) {
+            return false;
+        }
+        restoring.set(key);
+        try (Timeline.Span span = Timeline.span("checkpoint", "restore", key)) {
+            snapshot.restore(Hooks.startBrowser(snapshot.profile));
+        }
+        Hooks.getExtentTest().info("Restored checkpoint [" + key + "] at " + snapshot.url);
+        return true;
+    }
+
+    /**
+     * @return true while the current scenario is skipping the setup steps of a restored checkpoint
+     */
+    public static boolean isRestoring() {
+        return restoring.get() != null;
+    }
+
+    /**
+     * Tells a setup step whether it must be skipped because its state was restored from a checkpoint.
+     *
+     * @param step description of the step, for the report
+     * @return true when the step must do nothing
+     */
+    public static boolean skip(String step) {
+        if (!isRestoring()) {
+            return false;
+        }
+        Hooks.getExtentTest().info("Skipped [" + step + "], restored from checkpoint [" + restoring.get() + "]");
+        return true;
+    }
+
+    /**
+     * Declares that a step changes the application state, so no checkpoint may follow it
+     * in the scenario, and it cannot be a skipped setup step.
+     *
+     * @param step description of the step, for the error
+     * @throws IllegalStateException when the step comes before the checkpoint of a restored scenario
+     */
+    public static void mutating(String step) {
+        if (isRestoring()) {
+            throw notIdempotent(restoring.get(), step);
+        }
+        if (mutated.get() == null) {
+            mutated.set(step);
+        }
+    }
+
+    /**
+     * Saves the checkpoint with the state of the browser of the current scenario,
+     * or ends the skipped setup steps when it was restored.
+     *
+     * @param key checkpoint key
+     * @throws IllegalStateException when a step that changes the application state came before
+     */
+    public static void reached(String key) {
+        if (mutated.get() != null) {
+            throw notIdempotent(key, mutated.get());
+        }
+        if (key.equals(restoring.get())) {
+            restoring.remove();
+            return;
+        }
+        if (!ENABLED || snapshots.containsKey(key)) {
+            return;
+        }
+        WebDriver driver = Hooks.getDriver();
+        if (driver == null) {
+            throw new IllegalStateException("No browser to save the checkpoint [" + key + "] from");
+        }
+        try (Timeline.Span span = Timeline.span("checkpoint", "save", key)) {
+            snapshots.putIfAbsent(key, Snapshot.of(driver, Hooks.getBrowserProfile()));
+        }
+        Hooks.getExtentTest().info("Saved checkpoint [" + key + "] at " + driver.getCurrentUrl());
+    }
+
+    /**
+     * Ends the checkpoint state of the current scenario.
+     */
+    public static void clear() {
+        restoring.remove();
+        mutated.remove();
+    }
+
+    private static IllegalStateException notIdempotent(String key, String step) {
+        return new IllegalStateException("The checkpoint [" + key + "] follows the step [" + step
+                + "], which changes the application state: a checkpoint must follow idempotent setup steps only");
+    }
+
+    /**
+     * Browser state at a checkpoint.
+     */
+    private static class Snapshot {
+
+        private static final String READ_STORAGE =
+                "var read = function (s) { var m = {}; for (var i = 0; i < s.length; i++) { m[s.key(i)] = s.getItem(s.key(i)); } return m; };"
+                + " return [read(window.localStorage), read(window.sessionStorage)];";
+        private static final String WRITE_STORAGE =
+                "var write = function (s, m) { for (var k in m) { s.setItem(k, m[k]); } };"
+                + " write(window.localStorage, %s); write(window.sessionStorage, %s);";
+
+        private String profile;
+        private String url;
+        private Set<Cookie> cookies;
+        private Map<String, String> localStorage;
+        private Map<String, String> sessionStorage;
+
+        @SuppressWarnings("unchecked")
+        static Snapshot of(WebDriver driver, String profile) {
+            Snapshot snapshot = new Snapshot();
+            snapshot.profile = profile;
+            snapshot.url = driver.getCurrentUrl();
+            snapshot.cookies = driver.manage().getCookies();
+            List<Object> storage = (List<Object>) ((JavascriptExecutor) driver).executeScript(READ_STORAGE);
+            snapshot.localStorage = toStrings((Map<String, Object>) storage.get(0));
+            snapshot.sessionStorage = toStrings((Map<String, Object>) storage.get(1));
+            return snapshot;
+        }
+
+        /**
+         * Sets the cookies and seeds the storages before the page scripts run, with DevTools,
+         * so the checkpoint costs a single page load; without DevTools the page is loaded twice.
+         */
+        void restore(WebDriver driver) {
+            String seed = String.format(WRITE_STORAGE, gson.toJson(localStorage), gson.toJson(sessionStorage));
+            try {
+                DevTools.execute(driver, "Network.setCookies", Collections.singletonMap("cookies", cdpCookies()));
+                Object script = DevTools.execute(driver, "Page.addScriptToEvaluateOnNewDocument",
+                        Collections.singletonMap("source", "(function () { if (window.location.href === "
+                                + gson.toJson(url) + ") { " + seed + " } })();"));
+                driver.navigate().to(url);
+                DevTools.execute(driver, "Page.removeScriptToEvaluateOnNewDocument",
+                        Collections.singletonMap("identifier", ((Map<?, ?>) script).get("identifier")));
+            } catch (RuntimeException e) {
+                driver.navigate().to(url);
+                for (Cookie cookie : cookies) {
+                    driver.manage().addCookie(cookie);
+                }
+                ((JavascriptExecutor) driver).executeScript(seed);
+                driver.navigate().refresh();
+            }
+        }
+
+        private List<Map<String, Object>> cdpCookies() {
+            List<Map<String, Object>> cdp = new ArrayList<>();
+            for (Cookie cookie : cookies) {
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put("name", cookie.getName());
+                map.put("value", cookie.getValue());
+                map.put("url", url);
+                if (cookie.getPath() != null) {
+                    map.put("path", cookie.getPath());
+                }
+                map.put("secure", cookie.isSecure());
+                map.put("httpOnly", cookie.isHttpOnly());
+                if (cookie.getDomain() != null && cookie.getDomain().startsWith(".")) {
+                    map.put("domain", cookie.getDomain());
+                }
+                if (cookie.getExpiry() != null) {
+                    map.put("expires", cookie.getExpiry().getTime() / 1000.0);
+                }
+                cdp.add(map);
+            }
+            return cdp;
+        }
+
+        private static Map<String, String> toStrings(Map<String, Object> values) {
+            Map<String, String> strings = new HashMap<>();
+            values.forEach((key, value) -> strings.put(key, String.valueOf(value)));
+            return strings;
+        }
+    }
+}
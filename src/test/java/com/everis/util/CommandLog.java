@@ -0,0 +1,319 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * CommandLog counts the wire protocol commands sent to the browsers and measures their latency.
+ * - The command executor of each browser started by {@link Hooks} is wrapped, so every
+ *   command is seen, including the ones of the waits and the page object proxies.
+ * - Commands are counted per step (see {@link CommandLogPlugin}) and per scenario, and
+ *   timed per command name and per locator of the find commands.
+ * - Commands slower than "driver.slowCommandMillis" (default 1000) are flagged.
+ * - Commands sent outside a scenario (e.g. the reset of a pooled browser) are ignored.
+ *
+ * The summary of each scenario is logged in its Extent test, and the summary of the run
+ * is written to "target/command-log.json". Disabled with -Ddriver.commandLog=false.
+ */
+public class CommandLog {
+
+    public static final Path DEFAULT_PATH = Paths.get("target/command-log.json");
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("driver.commandLog", "true"));
+    private static final long SLOW_MILLIS = Long.getLong("driver.slowCommandMillis", 1000L);
+    private static final String NO_STEP = "(hooks)";
+
+    private static final ThreadLocal<ScenarioCommands> scenario = new ThreadLocal<>();
+    private static final Map<String, Latency> byCommand = new ConcurrentHashMap<>();
+    private static final Map<String, Latency> byLocator = new ConcurrentHashMap<>();
+    private static final List<ScenarioSummary> scenarios = Collections.synchronizedList(new ArrayList<>());
+    private static final List<SlowCommand> slowCommands = Collections.synchronizedList(new ArrayList<>());
+
+    private CommandLog() { }
+
+    /**
+     * @return false when the command log was disabled with -Ddriver.commandLog=false
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Wraps the command executor of the browser, so its commands are logged.
+     *
+     * @param driver browser just started
+     */
+    public static void instrument(WebDriver driver) {
+        if (!(driver instanceof RemoteWebDriver)) {
+            return;
+        }
+        RemoteWebDriver remote = (RemoteWebDriver) driver;
+        if (remote.getCommandExecutor() instanceof InstrumentedExecutor) {
+            return;
+        }
+        try {
+            FieldUtils.writeField(remote, "executor", new InstrumentedExecutor(remote.getCommandExecutor()), true);
+        } catch (IllegalAccessException e) {
+            System.err.println("Error instrumenting the browser commands: " + e);
+        }
+    }
+
+    /**
+     * Starts counting the commands of the scenario running in the current thread.
+     */
+    public static void scenarioStarted() {
+        scenario.set(new ScenarioCommands());
+    }
+
+    /**
+     * Attributes the next commands of the current thread to the given step.
+     *
+     * @param step step text, or null after the step finished
+     */
+    static void setStep(String step) {
+        ScenarioCommands commands = scenario.get();
+        if (commands != null) {
+            commands.step = step == null ? NO_STEP : step;
+        }
+    }
+
+    /**
+     * Logs the commands of the finished scenario in its Extent test and adds them to the run summary.
+     *
+     * @param name       scenario name
+     * @param extentTest Extent test of the scenario
+     */
+    public static void scenarioFinished(String name, ExtentTest extentTest) {
+        ScenarioCommands commands = scenario.get();
+        scenario.remove();
+        if (commands == null) {
+            return;
+        }
+
+        ScenarioSummary summary = new ScenarioSummary(name, commands);
+        scenarios.add(summary);
+        if (extentTest == null || summary.commands == 0) {
+            return;
+        }
+
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] { "Step", "Commands", "Time (ms)" });
+        for (StepSummary step : summary.steps) {
+            rows.add(new String[] { escape(step.step), String.valueOf(step.commands), String.valueOf(step.millis) });
+        }
+        rows.add(new String[] { "Total", String.valueOf(summary.commands), String.valueOf(summary.millis) });
+        extentTest.info(MarkupHelper.createTable(rows.toArray(new String[0][])));
+
+        for (SlowCommand slow : commands.slow) {
+            extentTest.warning("Slow command (" + slow.millis + " ms &gt; " + SLOW_MILLIS + " ms): "
+                    + escape(slow.command + (slow.locator == null ? "" : " " + slow.locator))
+                    + " in step " + escape(slow.step));
+        }
+    }
+
+    /**
+     * Writes the summary of the run.
+     *
+     * @param path JSON file
+     */
+    public static void save(Path path) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("slowCommandMillis", SLOW_MILLIS);
+        report.put("commands", new TreeMap<>(byCommand));
+        report.put("locators", new TreeMap<>(byLocator));
+        synchronized (scenarios) {
+            report.put("scenarios", new ArrayList<>(scenarios));
+        }
+        synchronized (slowCommands) {
+            report.put("slowCommands", new ArrayList<>(slowCommands));
+        }
+
+        Gson gson = new GsonBuilder().setPrettyPrinting().create();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                gson.toJson(report, writer);
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing command log: " + e);
+        }
+    }
+
+    /**
+     * Forgets the commands of the current thread, when the scenario ended without {@link #scenarioFinished}.
+     */
+    public static void clear() {
+        scenario.remove();
+    }
+
+    private static void record(Command command, long nanos) {
+        ScenarioCommands commands = scenario.get();
+        if (commands == null) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        String locator = locator(command);
+
+        byCommand.computeIfAbsent(command.getName(), c -> new Latency()).add(millis);
+        if (locator != null) {
+            byLocator.computeIfAbsent(locator, l -> new Latency()).add(millis);
+        }
+
+        commands.step(commands.step).add(millis);
+        if (millis > SLOW_MILLIS) {
+            SlowCommand slow = new SlowCommand(commands.step, command.getName(), locator, millis);
+            commands.slow.add(slow);
+            slowCommands.add(slow);
+        }
+    }
+
+    /**
+     * @return the locator of a find command (e.g. "css selector: #search_query_top"), or null
+     */
+    private static String locator(Command command) {
+        Object using = command.getParameters().get("using");
+        Object value = command.getParameters().get("value");
+        return using instanceof String && value instanceof String ? using + ": " + value : null;
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Command executor that times the commands of its delegate.
+     * The field name "delegate" is also used by {@link DevTools} to reach the HTTP executor.
+     */
+    private static class InstrumentedExecutor implements CommandExecutor {
+
+        private final CommandExecutor delegate;
+
+        private InstrumentedExecutor(CommandExecutor delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            long start = System.nanoTime();
+            try (Timeline.Span span = Timeline.span("command", command.getName(), locator(command))) {
+                return delegate.execute(command);
+            } finally {
+                record(command, System.nanoTime() - start);
+            }
+        }
+    }
+
+    /**
+     * Count, total and maximum latency of a kind of command, in milliseconds.
+     */
+    private static class Latency {
+
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+
+        synchronized void add(long millis) {
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+    }
+
+    /**
+     * Commands of the scenario running in a thread, per step.
+     */
+    private static class ScenarioCommands {
+
+        private final Map<String, Latency> steps = new LinkedHashMap<>();
+        private final List<SlowCommand> slow = new ArrayList<>();
+        private String step = NO_STEP;
+
+        Latency step(String name) {
+            return steps.computeIfAbsent(name, s -> new Latency());
+        }
+    }
+
+    /**
+     * Commands of a finished scenario.
+     */
+    private static class ScenarioSummary {
+
+        private final String scenario;
+        private final long commands;
+        private final long millis;
+        private final List<StepSummary> steps = new ArrayList<>();
+
+        ScenarioSummary(String scenario, ScenarioCommands scenarioCommands) {
+            this.scenario = scenario;
+            long count = 0;
+            long total = 0;
+            for (Map.Entry<String, Latency> step : scenarioCommands.steps.entrySet()) {
+                steps.add(new StepSummary(step.getKey(), step.getValue().count, step.getValue().totalMillis));
+                count += step.getValue().count;
+                total += step.getValue().totalMillis;
+            }
+            this.commands = count;
+            this.millis = total;
+        }
+    }
+
+    /**
+     * Commands of a step.
+     */
+    private static class StepSummary {
+
+        private final String step;
+        private final long commands;
+        private final long millis;
+
+        StepSummary(String step, long commands, long millis) {
+            this.step = step;
+            this.commands = commands;
+            this.millis = millis;
+        }
+    }
+
+    /**
+     * Command slower than the threshold.
+     */
+    private static class SlowCommand {
+
+        private final String step;
+        private final String command;
+        private final String locator;
+        private final long millis;
+
+        SlowCommand(String step, String command, String locator, long millis) {
+            this.step = step;
+            this.command = command;
+            this.locator = locator;
+            this.millis = millis;
+        }
+    }
+}
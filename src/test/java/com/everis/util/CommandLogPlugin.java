@@ -0,0 +1,26 @@
+package com.everis.util;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+/**
+ * CommandLogPlugin tells the {@link CommandLog} which step is running in each thread,
+ * so the browser commands are counted per step. Commands sent by hooks are grouped
+ * under "(hooks)".
+ */
+public class CommandLogPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepStarted.class, event -> {
+            if (event.getTestStep() instanceof PickleStepTestStep) {
+                PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+                CommandLog.setStep(step.getStep().getKeyword() + step.getStep().getText());
+            }
+        });
+        publisher.registerHandlerFor(TestStepFinished.class, event -> CommandLog.setStep(null));
+    }
+}
@@ -0,0 +1,355 @@
+package com.everis.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * DataSet reads the rows of a CSV file (with a header line) or a JSON-lines file lazily,
+ * one row at a time, so the size of the file does not matter for the heap.
+ * - Files are looked up in "data.dir" (default "src/test/resources/data") and memory-mapped
+ *   in windows of {@value #WINDOW_BYTES} bytes; otherwise they are streamed from the classpath.
+ * - Rows are partitioned between workers with -Ddata.partition.index and -Ddata.partition.count
+ *   (default 0 and 1, every row): a worker reads every count-th row. They are not derived from
+ *   the shards, since each scenario runs in a single shard; set them only when the same data
+ *   scenario runs in every worker.
+ * - -Ddata.sample=&lt;0..1&gt; keeps that fraction of the rows, chosen by row number with -Ddata.seed,
+ *   and -Ddata.limit=&lt;n&gt; stops after n rows of the worker.
+ *
+ * CSV fields may be quoted ("a, b" and "a ""b"""), but a row must fit in one line.
+ */
+public class DataSet implements Iterable<Map<String, String>> {
+
+    static final int WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private static final Path DIRECTORY = Paths.get(System.getProperty("data.dir", "src/test/resources/data"));
+    private static final int PARTITION_INDEX = Integer.getInteger("data.partition.index", 0);
+    private static final int PARTITION_COUNT = Integer.getInteger("data.partition.count", 1);
+    private static final double SAMPLE = Double.parseDouble(System.getProperty("data.sample", "1"));
+    private static final long SEED = Long.getLong("data.seed", 0L);
+    private static final long LIMIT = Long.getLong("data.limit", Long.MAX_VALUE);
+
+    private final String name;
+    private final boolean json;
+
+    private DataSet(String name, boolean json) {
+        this.name = name;
+        this.json = json;
+    }
+
+    /**
+     * Finds a dataset by name, e.g. "produtos" for "produtos.csv" or "produtos.jsonl".
+     * Nothing is read until the rows are iterated.
+     *
+     * @param name dataset name, or file name with its extension
+     * @return the dataset
+     * @throws IllegalArgumentException when there is no such file
+     */
+    public static DataSet open(String name) {
+        for (String fileName : new String[] { name, name + ".csv", name + ".jsonl" }) {
+            boolean json = fileName.endsWith(".jsonl") || fileName.endsWith(".json");
+            if (!json && !fileName.endsWith(".csv")) {
+                continue;
+            }
+            if (Files.isRegularFile(DIRECTORY.resolve(fileName))
+                    || DataSet.class.getClassLoader().getResource("data/" + fileName) != null) {
+                return new DataSet(fileName, json);
+            }
+        }
+        throw new IllegalArgumentException("Dataset not found: " + name + " (in " + DIRECTORY + " or classpath:data)");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the file of the dataset, relative to the project directory when it is in "data.dir"
+     */
+    public Path getSource() {
+        Path file = DIRECTORY.resolve(name);
+        return Files.isRegularFile(file) ? file : Paths.get("src/test/resources/data", name);
+    }
+
+    /**
+     * Opens a reader of the rows of this worker. It must be closed when it is not read to the end.
+     */
+    @Override
+    public Rows iterator() {
+        return new Rows(lines(), json, getSource());
+    }
+
+    private LineReader lines() {
+        Path file = DIRECTORY.resolve(name);
+        try {
+            if (Files.isRegularFile(file)) {
+                return new MappedLineReader(file);
+            }
+            InputStream in = DataSet.class.getClassLoader().getResourceAsStream("data/" + name);
+            if (in == null) {
+                throw new IllegalArgumentException("Dataset not found: " + name);
+            }
+            return new StreamLineReader(in);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return true when the row with the given number (0-based, header excluded) belongs to this worker sample
+     */
+    static boolean selected(long row) {
+        if (Math.floorMod(row, PARTITION_COUNT) != PARTITION_INDEX) {
+            return false;
+        }
+        if (SAMPLE >= 1) {
+            return true;
+        }
+        // SplitMix64 finalizer: a stable pseudo-random fraction per row and seed
+        long z = row * 0x9E3779B97F4A7C15L + SEED;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53 < SAMPLE;
+    }
+
+    /**
+     * Parses a CSV line with optionally quoted fields.
+     */
+    static List<String> parseCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Rows of a dataset, read on demand.
+     */
+    public static class Rows implements Iterator<Map<String, String>>, Closeable {
+
+        private final LineReader lines;
+        private final boolean json;
+        private final Path source;
+        private final JsonParser parser = new JsonParser();
+        private List<String> header;
+        private long row = -1;
+        private long returned;
+        private Map<String, String> next;
+
+        private Rows(LineReader lines, boolean json, Path source) {
+            this.lines = lines;
+            this.json = json;
+            this.source = source;
+        }
+
+        public Path getSource() {
+            return source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && returned < LIMIT) {
+                next = read();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, String> current = next;
+            next = null;
+            returned++;
+            return current;
+        }
+
+        private Map<String, String> read() {
+            try {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.trim().isEmpty()) {
+                        continue;
+                    }
+                    if (!json && header == null) {
+                        header = parseCsv(line.charAt(0) == '\uFEFF' ? line.substring(1) : line);
+                        continue;
+                    }
+                    if (selected(++row)) {
+                        return json ? fromJson(line) : fromCsv(line);
+                    }
+                }
+                close();
+                return null;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private Map<String, String> fromCsv(String line) {
+            List<String> values = parseCsv(line);
+            Map<String, String> map = new LinkedHashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                map.put(header.get(i), i < values.size() ? values.get(i) : "");
+            }
+            return map;
+        }
+
+        private Map<String, String> fromJson(String line) {
+            JsonObject object = parser.parse(line).getAsJsonObject();
+            Map<String, String> map = new LinkedHashMap<>();
+            for (Map.Entry<String, JsonElement> entry : object.entrySet()) {
+                JsonElement value = entry.getValue();
+                map.put(entry.getKey(), value.isJsonNull() ? null
+                        : value.isJsonPrimitive() ? value.getAsString() : value.toString());
+            }
+            return map;
+        }
+
+        @Override
+        public void close() {
+            try {
+                lines.close();
+            } catch (IOException e) {
+                System.err.println("Error closing dataset: " + e);
+            }
+        }
+    }
+
+    /**
+     * Source of the lines of a dataset file.
+     */
+    private interface LineReader extends Closeable {
+
+        /**
+         * @return the next line without its terminator, or null at the end of the file
+         */
+        String readLine() throws IOException;
+    }
+
+    /**
+     * Reads the lines of a file through read-only memory maps of up to {@value #WINDOW_BYTES} bytes.
+     */
+    private static class MappedLineReader implements LineReader {
+
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedLineReader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            size = channel.size();
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            if (window == null) {
+                map(0);
+            }
+            while (true) {
+                int start = window.position();
+                for (int i = start; i < window.limit(); i++) {
+                    if (window.get(i) == '\n') {
+                        window.position(i + 1);
+                        return decode(start, i);
+                    }
+                }
+                long lineStart = windowStart + start;
+                if (windowStart + window.limit() >= size) {
+                    // Last line, without a terminator
+                    window.position(window.limit());
+                    return start < window.limit() ? decode(start, window.limit()) : null;
+                }
+                if (start == 0) {
+                    throw new IOException("Line longer than " + WINDOW_BYTES + " bytes at offset " + lineStart);
+                }
+                map(lineStart);
+            }
+        }
+
+        private void map(long position) throws IOException {
+            windowStart = position;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_BYTES, size - position));
+        }
+
+        private String decode(int start, int end) {
+            int length = end > start && window.get(end - 1) == '\r' ? end - start - 1 : end - start;
+            byte[] bytes = new byte[length];
+            ByteBuffer line = window.duplicate();
+            line.position(start);
+            line.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the lines of a classpath resource, for datasets packaged in a jar.
+     */
+    private static class StreamLineReader implements LineReader {
+
+        private final BufferedReader reader;
+
+        private StreamLineReader(InputStream in) {
+            reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public String readLine() throws IOException {
+            return reader.readLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
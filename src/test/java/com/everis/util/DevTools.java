@@ -0,0 +1,91 @@
+package com.everis.util;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.CommandInfo;
+import org.openqa.selenium.remote.ErrorHandler;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.http.HttpMethod;
+
+/**
+ * DevTools sends Chrome DevTools Protocol commands through chromedriver's
+ * "goog/cdp/execute" endpoint, which Selenium 3 does not expose.
+ */
+public class DevTools {
+
+    private static final String COMMAND = "executeCdpCommand";
+    private static final Set<CommandExecutor> defined = Collections.newSetFromMap(new WeakHashMap<>());
+
+    private DevTools() { }
+
+    /**
+     * Executes a DevTools command in the browser.
+     *
+     * @param driver Chrome driver
+     * @param method DevTools method (e.g. "Network.setBlockedURLs")
+     * @param params method parameters
+     * @return the command result
+     * @throws WebDriverException when the browser rejects the command
+     */
+    public static Object execute(WebDriver driver, String method, Map<String, ?> params) {
+        RemoteWebDriver remote = (RemoteWebDriver) driver;
+        HttpCommandExecutor executor = httpExecutor(remote.getCommandExecutor());
+        define(executor);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("cmd", method);
+        parameters.put("params", params);
+        try {
+            Response response = remote.getCommandExecutor()
+                    .execute(new Command(remote.getSessionId(), COMMAND, parameters));
+            return new ErrorHandler().throwIfResponseFailed(response, 0).getValue();
+        } catch (WebDriverException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new WebDriverException("Error executing DevTools command " + method, e);
+        }
+    }
+
+    /**
+     * Finds the HTTP executor behind executors that delegate to another one
+     * through a field named "delegate".
+     */
+    private static HttpCommandExecutor httpExecutor(CommandExecutor executor) {
+        CommandExecutor current = executor;
+        while (!(current instanceof HttpCommandExecutor)) {
+            try {
+                current = (CommandExecutor) FieldUtils.readField(current, "delegate", true);
+            } catch (IllegalAccessException | IllegalArgumentException e) {
+                throw new WebDriverException("DevTools commands are not supported by " + executor.getClass(), e);
+            }
+        }
+        return (HttpCommandExecutor) current;
+    }
+
+    private static void define(HttpCommandExecutor executor) {
+        synchronized (defined) {
+            if (defined.contains(executor)) {
+                return;
+            }
+            try {
+                MethodUtils.invokeMethod(executor, true, "defineCommand", COMMAND,
+                        new CommandInfo("/session/:sessionId/goog/cdp/execute", HttpMethod.POST));
+            } catch (ReflectiveOperationException e) {
+                throw new WebDriverException("DevTools commands are not supported by " + executor.getClass(), e);
+            }
+            defined.add(executor);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.everis.util;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * DomWaits waits for elements inside the page, with a MutationObserver injected through
+ * executeAsyncScript, instead of polling the driver. Each wait costs a single driver call
+ * (plus one to raise the script timeout of the browser when needed).
+ *
+ * When the locator cannot be evaluated by script, the driver does not run scripts,
+ * or the script fails (e.g. the page was unloaded during the wait), the given polling
+ * fallback is used, with the time left of the wait in milliseconds.
+ * The engine can be disabled with -Dwait.engine=polling.
+ */
+public class DomWaits {
+
+    private static final boolean ENABLED = !"polling".equals(System.getProperty("wait.engine", "script"));
+    private static final String SCRIPT = Utils.readResourceToString("scripts/dom-helpers.js")
+            + Utils.readResourceToString("scripts/wait-for-element.js");
+    static final long SCRIPT_TIMEOUT_MARGIN_MILLIS = 2000;
+
+    private static final Map<WebDriver, Long> scriptTimeouts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private DomWaits() { }
+
+    /**
+     * Waits until the first element found by the locator is visible.
+     *
+     * @param driver           browser of the current scenario
+     * @param by               element locator
+     * @param timeOutInSeconds maximum time to wait
+     * @param fallback         polling wait used when the script cannot be used
+     * @return the first element, once visible
+     * @throws TimeoutException when the first element did not become visible in time
+     */
+    public static WebElement visible(WebDriver driver, By by, int timeOutInSeconds, LongFunction<WebElement> fallback) {
+        long deadline = deadline(timeOutInSeconds);
+        if (!supports(driver, by)) {
+            return fallback.apply(remaining(deadline));
+        }
+        try {
+            Object result = execute(driver, by, "visible", null, timeOutInSeconds);
+            if (result instanceof WebElement) {
+                return (WebElement) result;
+            }
+        } catch (TimeoutException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            return fallback.apply(remaining(deadline));
+        }
+        throw timeout("visibility of element located by " + by, timeOutInSeconds);
+    }
+
+    /**
+     * Waits until every element found by the locator is visible.
+     *
+     * @param driver           browser of the current scenario
+     * @param by               elements locator
+     * @param timeOutInSeconds maximum time to wait
+     * @param fallback         polling wait used when the script cannot be used
+     * @return the visible elements
+     * @throws TimeoutException when the elements did not become visible in time
+     */
+    public static List<WebElement> allVisible(WebDriver driver, By by, int timeOutInSeconds,
+                                              LongFunction<List<WebElement>> fallback) {
+        long deadline = deadline(timeOutInSeconds);
+        if (!supports(driver, by)) {
+            return fallback.apply(remaining(deadline));
+        }
+        try {
+            Object result = execute(driver, by, "allVisible", null, timeOutInSeconds);
+            if (result instanceof List) {
+                return ((List<?>) result).stream()
+                        .map(WebElement.class::cast)
+                        .collect(Collectors.toList());
+            }
+        } catch (TimeoutException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            return fallback.apply(remaining(deadline));
+        }
+        throw timeout("visibility of all elements located by " + by, timeOutInSeconds);
+    }
+
+    /**
+     * Waits until the first element found by the locator is absent or hidden,
+     * as ExpectedConditions.invisibilityOfElementLocated does.
+     *
+     * @return true when the first element is absent or hidden, false on timeout
+     */
+    public static boolean invisible(WebDriver driver, By by, int timeOutInSeconds, LongFunction<Boolean> fallback) {
+        return condition(driver, by, "invisible", null, timeOutInSeconds, fallback);
+    }
+
+    /**
+     * Waits until the value of the element found by the locator contains the given text.
+     *
+     * @return true when the value contains the text, false on timeout
+     */
+    public static boolean hasValue(WebDriver driver, By by, String text, int timeOutInSeconds,
+                                   LongFunction<Boolean> fallback) {
+        return condition(driver, by, "value", text, timeOutInSeconds, fallback);
+    }
+
+    private static boolean supports(WebDriver driver, By by) {
+        return ENABLED && driver instanceof JavascriptExecutor && Locators.toScript(by) != null;
+    }
+
+    private static boolean condition(WebDriver driver, By by, String condition, String text,
+                                     int timeOutInSeconds, LongFunction<Boolean> fallback) {
+        long deadline = deadline(timeOutInSeconds);
+        if (!supports(driver, by)) {
+            return fallback.apply(remaining(deadline));
+        }
+        try {
+            return Boolean.TRUE.equals(execute(driver, by, condition, text, timeOutInSeconds));
+        } catch (TimeoutException e) {
+            return false;
+        } catch (WebDriverException e) {
+            return fallback.apply(remaining(deadline));
+        }
+    }
+
+    private static Object execute(WebDriver driver, By by, String condition, String text, int timeOutInSeconds) {
+        long timeoutMillis = TimeUnit.SECONDS.toMillis(timeOutInSeconds);
+        ensureScriptTimeout(driver, timeoutMillis + SCRIPT_TIMEOUT_MARGIN_MILLIS);
+
+        Map<String, String> locator = Locators.toScript(by);
+        return ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT,
+                locator.get("using"), locator.get("value"), condition, text, timeoutMillis);
+    }
+
+    private static long deadline(int timeOutInSeconds) {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(timeOutInSeconds);
+    }
+
+    private static long remaining(long deadline) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+    }
+
+    /**
+     * Raises the asynchronous script timeout of the browser when it is lower than the given one.
+     */
+    static void ensureScriptTimeout(WebDriver driver, long timeoutMillis) {
+        Long current = scriptTimeouts.get(driver);
+        if (current == null || current < timeoutMillis) {
+            driver.manage().timeouts().setScriptTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+            scriptTimeouts.put(driver, timeoutMillis);
+        }
+    }
+
+    private static TimeoutException timeout(String condition, int timeOutInSeconds) {
+        return new TimeoutException("Expected condition failed: waiting for " + condition
+                + " (tried for " + timeOutInSeconds + " second(s) with a DOM observer)");
+    }
+}
@@ -0,0 +1,191 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.openqa.selenium.WebDriver;
+
+import io.cucumber.java.Scenario;
+
+/**
+ * Downloads gives each scenario its own download directory, under "target/temp",
+ * and waits for downloaded files with a {@link WatchService} instead of polling the directory.
+ * - A file is complete when it matches the expected glob, is not a partial download
+ *   (".crdownload", ".part", ".tmp") and its size did not change for "download.settleMillis" (default 50).
+ * - The directory of a new browser is set in its Chrome prefs; a pooled browser is switched
+ *   to the directory of the scenario with the DevTools command Page.setDownloadBehavior.
+ */
+public class Downloads {
+
+    public static final Path ROOT = Paths.get(System.getProperty("user.dir"), "target", "temp");
+
+    private static final long SETTLE_MILLIS = Long.getLong("download.settleMillis", 50L);
+    private static final long RESCAN_MILLIS = 200;
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+    private static final ThreadLocal<Path> directory = new ThreadLocal<>();
+
+    private Downloads() { }
+
+    /**
+     * Creates the download directory of a scenario and binds it to the current thread.
+     *
+     * @param scenario the current Cucumber scenario
+     * @return the scenario download directory
+     */
+    public static Path start(Scenario scenario) {
+        String name = scenario.getName().replaceAll("[^A-Za-z0-9]+", "-").replaceAll("^-|-$", "");
+        Path path = ROOT.resolve(String.format("%04d-%s", sequence.incrementAndGet(), name));
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        directory.set(path);
+        return path;
+    }
+
+    /**
+     * Unbinds the download directory of the scenario, deleting it when nothing was downloaded.
+     */
+    public static void finish() {
+        Path path = directory.get();
+        directory.remove();
+        if (path == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(path)) {
+            if (!files.findAny().isPresent()) {
+                Files.delete(path);
+            }
+        } catch (IOException e) {
+            System.err.println("Error cleaning download directory " + path + ": " + e);
+        }
+    }
+
+    /**
+     * @return the download directory of the current scenario, or "target/temp" outside a scenario
+     */
+    public static Path current() {
+        Path path = directory.get();
+        return path != null ? path : ROOT;
+    }
+
+    /**
+     * Sends the downloads of an already started browser to the directory of the current scenario.
+     *
+     * @param driver browser of the current scenario
+     */
+    public static void redirect(WebDriver driver) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("behavior", "allow");
+        params.put("downloadPath", current().toString());
+        try {
+            DevTools.execute(driver, "Page.setDownloadBehavior", params);
+        } catch (RuntimeException e) {
+            System.err.println("Error setting the download directory of the browser: " + e);
+        }
+    }
+
+    /**
+     * Waits until a complete file matching the glob exists in the directory.
+     *
+     * @param dir              directory where the file is downloaded
+     * @param glob             expected file name (e.g. "*.pdf"), "*" for any file
+     * @param timeOutInSeconds maximum time to wait
+     * @return the downloaded file, or null when none was completed in time
+     */
+    public static Path await(Path dir, String glob, int timeOutInSeconds) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeOutInSeconds);
+        try {
+            Files.createDirectories(dir);
+            try (WatchService watcher = dir.getFileSystem().newWatchService()) {
+                dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+                Map<Path, long[]> sizes = new HashMap<>();
+                while (true) {
+                    // The directory is scanned on every event, and at least every RESCAN_MILLIS
+                    // for platforms where the WatchService is itself a slow poller
+                    Path completed = scan(dir, matcher, sizes);
+                    if (completed != null) {
+                        return completed;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    long wait = sizes.isEmpty() ? RESCAN_MILLIS : Math.max(1, SETTLE_MILLIS);
+                    WatchKey key = watcher.poll(Math.min(TimeUnit.NANOSECONDS.toMillis(remaining) + 1, wait),
+                            TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns a candidate whose size did not change for the settle time,
+     * updating the seen sizes (size and nano time since it has that size).
+     */
+    private static Path scan(Path dir, PathMatcher matcher, Map<Path, long[]> sizes) throws IOException {
+        Map<Path, long[]> previous = new HashMap<>(sizes);
+        sizes.clear();
+        long now = System.nanoTime();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                if (!isCandidate(file, matcher)) {
+                    continue;
+                }
+                long size;
+                try {
+                    size = Files.size(file);
+                } catch (IOException e) {
+                    continue; // renamed or deleted meanwhile
+                }
+                long[] seen = previous.get(file);
+                if (seen == null) {
+                    // A file found by the first scan may have been written long ago
+                    long age = System.currentTimeMillis() - Files.getLastModifiedTime(file).toMillis();
+                    seen = new long[] { size, now - TimeUnit.MILLISECONDS.toNanos(Math.max(0, age)) };
+                } else if (seen[0] != size) {
+                    seen = new long[] { size, now };
+                }
+                if (now - seen[1] >= TimeUnit.MILLISECONDS.toNanos(SETTLE_MILLIS)) {
+                    return file;
+                }
+                sizes.put(file, seen);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isCandidate(Path file, PathMatcher matcher) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".crdownload") || name.endsWith(".part") || name.endsWith(".tmp")) {
+            return false;
+        }
+        return Files.isRegularFile(file) && matcher.matches(file.getFileName())
+                && !Files.exists(file.resolveSibling(name + ".crdownload"));
+    }
+}
@@ -0,0 +1,132 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+/**
+ * DriverBinaries resolves the chromedriver binary once per JVM and caches it per machine
+ * in "webdriver.cache.file" (default ".bdd-cache/chromedriver.properties"), so sessions
+ * after the first run skip the WebDriverManager version detection and network lookups.
+ * - A binary given with -Dwebdriver.chrome.driver=path is always used as is.
+ * - With -Dwebdriver.offline=true WebDriverManager is never called: the binary must be
+ *   pre-provisioned (webdriver.chrome.driver) or already cached.
+ * - With -Dwebdriver.cache.refresh=true the cache is ignored and resolved again.
+ */
+public class DriverBinaries {
+
+    private static final String DRIVER_PROPERTY = "webdriver.chrome.driver";
+    private static final boolean OFFLINE = Boolean.getBoolean("webdriver.offline");
+    private static final boolean REFRESH = Boolean.getBoolean("webdriver.cache.refresh");
+    private static final Path CACHE = Paths.get(System.getProperty("webdriver.cache.file", ".bdd-cache/chromedriver.properties"));
+
+    private static boolean resolved;
+    private static boolean fromCache;
+
+    private DriverBinaries() { }
+
+    /**
+     * Makes sure "webdriver.chrome.driver" points to a chromedriver binary,
+     * resolving it only on the first call of the JVM.
+     */
+    public static synchronized void resolveChromeDriver() {
+        if (resolved) {
+            return;
+        }
+
+        String configured = System.getProperty(DRIVER_PROPERTY);
+        if (configured != null && Files.isExecutable(Paths.get(configured))) {
+            resolved = true;
+            return;
+        }
+
+        Properties cache = REFRESH ? new Properties() : readCache();
+        String cached = cache.getProperty("driver.path");
+        if (cached != null && Files.isExecutable(Paths.get(cached))) {
+            System.setProperty(DRIVER_PROPERTY, cached);
+            fromCache = true;
+            resolved = true;
+            return;
+        }
+
+        if (OFFLINE) {
+            throw new IllegalStateException("Offline mode: no chromedriver available. Provide it with -D"
+                    + DRIVER_PROPERTY + "=<path> or run once online to fill " + CACHE);
+        }
+
+        WebDriverManager manager = WebDriverManager.chromedriver();
+        manager.setup();
+        cache.setProperty("driver.path", manager.getDownloadedDriverPath());
+        cache.setProperty("driver.version", manager.getDownloadedDriverVersion());
+        writeCache(cache);
+
+        System.setProperty(DRIVER_PROPERTY, manager.getDownloadedDriverPath());
+        fromCache = false;
+        resolved = true;
+    }
+
+    /**
+     * Discards a cached binary that could not start a session (e.g. Chrome was updated),
+     * so the next {@link #resolveChromeDriver()} resolves it again.
+     *
+     * @return true when the binary came from the cache and was discarded
+     */
+    public static synchronized boolean invalidate() {
+        if (!fromCache || OFFLINE) {
+            return false;
+        }
+        System.clearProperty(DRIVER_PROPERTY);
+        Properties cache = readCache();
+        cache.remove("driver.path");
+        writeCache(cache);
+        resolved = false;
+        fromCache = false;
+        return true;
+    }
+
+    /**
+     * Stores the Chrome version reported by the first session, for diagnostics of the cache.
+     *
+     * @param browserVersion version reported by the browser capabilities
+     */
+    public static synchronized void recordBrowserVersion(String browserVersion) {
+        Properties cache = readCache();
+        if (browserVersion == null || browserVersion.equals(cache.getProperty("browser.version"))
+                || cache.getProperty("driver.path") == null) {
+            return;
+        }
+        cache.setProperty("browser.version", browserVersion);
+        writeCache(cache);
+    }
+
+    private static Properties readCache() {
+        Properties cache = new Properties();
+        if (Files.exists(CACHE)) {
+            try (InputStream in = Files.newInputStream(CACHE)) {
+                cache.load(in);
+            } catch (IOException e) {
+                System.err.println("Error reading driver cache, resolving again: " + e);
+            }
+        }
+        return cache;
+    }
+
+    private static void writeCache(Properties cache) {
+        try {
+            if (CACHE.getParent() != null) {
+                Files.createDirectories(CACHE.getParent());
+            }
+            try (OutputStream out = Files.newOutputStream(CACHE)) {
+                cache.store(out, "chromedriver resolved by DriverBinaries");
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing driver cache: " + e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.everis.util;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * DriverPool keeps already started browsers so scenarios do not pay
+ * the browser startup on every execution.
+ * - Browsers are grouped by profile (e.g. desktop, mobile).
+ * - A released browser is reset (windows, cookies of every domain, storages of the open origins)
+ *   and handed to the next scenario of the same profile.
+ * - The next browser of a profile is started in background while the current one is in use.
+ * - A browser is discarded after "driver.pool.maxUses" scenarios or when its reset fails.
+ * - On shutdown, browsers still starting are awaited (up to "driver.pool.shutdownTimeout" seconds) and quit.
+ *
+ * Enabled with -Ddriver.pool=true.
+ */
+public class DriverPool {
+
+    private static final boolean ENABLED = Boolean.getBoolean("driver.pool");
+    private static final int MAX_USES = Integer.getInteger("driver.pool.maxUses", 20);
+    private static final int SHUTDOWN_TIMEOUT_SECONDS = Integer.getInteger("driver.pool.shutdownTimeout", 60);
+
+    private static final Map<String, BlockingDeque<WebDriver>> idle = new ConcurrentHashMap<>();
+    private static final Map<String, Future<WebDriver>> warming = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, Lease> leases = new ConcurrentHashMap<>();
+
+    private static final ExecutorService spawner = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "driver-pool");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown));
+    }
+
+    private DriverPool() { }
+
+    /**
+     * @return true when the pool was enabled with -Ddriver.pool=true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns an idle browser of the given profile, the one being started in background,
+     * or a new one when none is available. Then starts the next browser in background.
+     *
+     * @param profile name used to group browsers started with the same options
+     * @param factory creates a new browser of this profile
+     * @return a browser ready to be used by the current scenario
+     */
+    public static WebDriver acquire(String profile, Supplier<WebDriver> factory) {
+        WebDriver webDriver = idle(profile).poll();
+        if (webDriver == null) {
+            webDriver = takeWarming(profile);
+        }
+        if (webDriver == null) {
+            webDriver = factory.get();
+        }
+
+        leases.computeIfAbsent(webDriver, d -> new Lease(profile, factory)).uses++;
+        prewarm(profile, factory);
+        return webDriver;
+    }
+
+    /**
+     * Gives a browser back to the pool. It is reset to a blank state,
+     * or quit when it reached the maximum number of uses or could not be reset.
+     *
+     * @param webDriver browser acquired with {@link #acquire(String, Supplier)}
+     */
+    public static void release(WebDriver webDriver) {
+        Lease lease = leases.get(webDriver);
+        if (lease == null) {
+            webDriver.quit();
+            return;
+        }
+
+        if (lease.uses >= MAX_USES || !reset(webDriver)) {
+            discard(webDriver);
+            prewarm(lease.profile, lease.factory);
+            return;
+        }
+        idle(lease.profile).offer(webDriver);
+    }
+
+    /**
+     * Quits every browser owned by the pool.
+     */
+    public static void shutdown() {
+        List<Future<WebDriver>> inFlight = new ArrayList<>(warming.values());
+        warming.clear();
+        List<WebDriver> drivers = new ArrayList<>(leases.keySet());
+        // A browser being started cannot be interrupted: wait for it and quit it with the others
+        for (Future<WebDriver> future : inFlight) {
+            WebDriver started = takeQuietly(future);
+            if (started != null && !drivers.contains(started)) {
+                drivers.add(started);
+            }
+        }
+        idle.clear();
+        leases.clear();
+
+        for (WebDriver webDriver : drivers) {
+            quitQuietly(webDriver);
+        }
+    }
+
+    private static BlockingDeque<WebDriver> idle(String profile) {
+        return idle.computeIfAbsent(profile, p -> new LinkedBlockingDeque<>());
+    }
+
+    private static WebDriver takeWarming(String profile) {
+        Future<WebDriver> future = warming.remove(profile);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (Exception e) {
+            System.err.println("Error starting browser in background: " + e);
+            return null;
+        }
+    }
+
+    private static WebDriver takeQuietly(Future<WebDriver> future) {
+        try {
+            return future.get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            System.err.println("Browser still starting after " + SHUTDOWN_TIMEOUT_SECONDS + "s, not quit: " + e);
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static void prewarm(String profile, Supplier<WebDriver> factory) {
+        if (!idle(profile).isEmpty()) {
+            return;
+        }
+        warming.computeIfAbsent(profile, p -> spawner.submit(() -> {
+            WebDriver webDriver = factory.get();
+            leases.put(webDriver, new Lease(profile, factory));
+            return webDriver;
+        }));
+    }
+
+    /**
+     * Closes every window but the first one, clears the cookies of every domain and the storages
+     * of the origins open in the windows, then leaves the browser on a blank page.
+     * Cookies and storages are cleared with DevTools; without it, only those of the current page are.
+     *
+     * @return false when the browser did not answer as expected
+     */
+    private static boolean reset(WebDriver webDriver) {
+        try {
+            List<String> handles = new ArrayList<>(webDriver.getWindowHandles());
+            Set<String> origins = new LinkedHashSet<>();
+            for (String handle : handles.subList(1, handles.size())) {
+                addOrigin(origins, webDriver.switchTo().window(handle).getCurrentUrl());
+                webDriver.close();
+            }
+            webDriver.switchTo().window(handles.get(0));
+            addOrigin(origins, webDriver.getCurrentUrl());
+
+            if (!clearWithDevTools(webDriver, origins)) {
+                ((JavascriptExecutor) webDriver).executeScript(
+                        "try { window.localStorage.clear(); window.sessionStorage.clear(); } catch (e) { }");
+                webDriver.manage().deleteAllCookies();
+            }
+            webDriver.navigate().to("about:blank");
+            return true;
+        } catch (Exception e) {
+            System.err.println("Error resetting browser, it will be discarded: " + e);
+            return false;
+        }
+    }
+
+    /**
+     * Clears the cookies of every domain and all the data (storages, IndexedDB, cache storage...)
+     * of the given origins.
+     *
+     * @return false when the browser does not support DevTools commands
+     */
+    private static boolean clearWithDevTools(WebDriver webDriver, Set<String> origins) {
+        try {
+            DevTools.execute(webDriver, "Network.clearBrowserCookies", Collections.emptyMap());
+        } catch (RuntimeException e) {
+            return false;
+        }
+        for (String origin : origins) {
+            Map<String, String> params = new HashMap<>();
+            params.put("origin", origin);
+            params.put("storageTypes", "all");
+            DevTools.execute(webDriver, "Storage.clearDataForOrigin", params);
+        }
+        return true;
+    }
+
+    private static void addOrigin(Set<String> origins, String url) {
+        try {
+            URL parsed = new URL(url);
+            if ("http".equals(parsed.getProtocol()) || "https".equals(parsed.getProtocol())) {
+                origins.add(parsed.getProtocol() + "://" + parsed.getAuthority());
+            }
+        } catch (MalformedURLException e) {
+            // e.g. about:blank, data: URLs, which keep no data
+        }
+    }
+
+    private static void discard(WebDriver webDriver) {
+        leases.remove(webDriver);
+        spawner.submit(() -> quitQuietly(webDriver));
+    }
+
+    private static void quitQuietly(WebDriver webDriver) {
+        try {
+            webDriver.quit();
+        } catch (Exception e) {
+            System.err.println("Error quitting browser: " + e);
+        }
+    }
+
+    /**
+     * Profile and usage count of a browser created by the pool.
+     */
+    private static class Lease {
+
+        private final String profile;
+        private final Supplier<WebDriver> factory;
+        private int uses;
+
+        private Lease(String profile, Supplier<WebDriver> factory) {
+            this.profile = profile;
+            this.factory = factory;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.everis.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+/**
+ * ElementQueries reads presence, visibility, text and attributes of many locators
+ * with a single executeScript call, instead of several driver calls per locator.
+ * Locators that cannot be evaluated by script, or every locator when the script fails,
+ * are read through the driver.
+ */
+public class ElementQueries {
+
+    private static final String SCRIPT = Utils.readResourceToString("scripts/dom-helpers.js")
+            + Utils.readResourceToString("scripts/query-elements.js");
+
+    private ElementQueries() { }
+
+    /**
+     * Reads the state of every locator.
+     *
+     * @param driver     browser of the current scenario
+     * @param locators   locators to read
+     * @param attributes attributes (or properties, such as "value") to read from the first element
+     * @return state of each locator, in the given order
+     * @throws IllegalArgumentException when a locator is given twice
+     */
+    public static Map<By, ElementState> query(WebDriver driver, List<By> locators, String... attributes) {
+        Map<By, ElementState> states = new LinkedHashMap<>();
+        List<By> scripted = new ArrayList<>();
+        List<Map<String, String>> arguments = new ArrayList<>();
+
+        for (By by : locators) {
+            Map<String, String> locator = Locators.toScript(by);
+            if (locator != null && driver instanceof JavascriptExecutor) {
+                scripted.add(by);
+                arguments.add(locator);
+            }
+            if (states.containsKey(by)) {
+                throw new IllegalArgumentException("Duplicate locator in query: " + by);
+            }
+            states.put(by, null);
+        }
+
+        if (!scripted.isEmpty()) {
+            try {
+                List<?> results = (List<?>) ((JavascriptExecutor) driver)
+                        .executeScript(SCRIPT, arguments, Arrays.asList(attributes));
+                for (int i = 0; i < scripted.size(); i++) {
+                    states.put(scripted.get(i), toState((Map<?, ?>) results.get(i)));
+                }
+            } catch (WebDriverException e) {
+                // e.g. the page was unloaded during the script: read every locator through the driver
+                System.err.println("Error querying elements by script, reading them one by one: " + e.getMessage());
+            }
+        }
+
+        for (Map.Entry<By, ElementState> entry : states.entrySet()) {
+            if (entry.getValue() == null) {
+                entry.setValue(read(driver, entry.getKey(), attributes));
+            }
+        }
+        return states;
+    }
+
+    private static ElementState toState(Map<?, ?> result) {
+        Map<String, String> attributes = new HashMap<>();
+        ((Map<?, ?>) result.get("attributes")).forEach((name, value) ->
+                attributes.put(String.valueOf(name), value == null ? null : String.valueOf(value)));
+        return new ElementState(
+                ((Number) result.get("count")).intValue(),
+                Boolean.TRUE.equals(result.get("displayed")),
+                (String) result.get("text"),
+                attributes);
+    }
+
+    private static ElementState read(WebDriver driver, By by, String... attributes) {
+        List<WebElement> elements = driver.findElements(by);
+        Map<String, String> values = new HashMap<>();
+        if (elements.isEmpty()) {
+            return new ElementState(0, false, null, values);
+        }
+
+        WebElement first = elements.get(0);
+        try {
+            for (String attribute : attributes) {
+                values.put(attribute, first.getAttribute(attribute));
+            }
+            return new ElementState(elements.size(), first.isDisplayed(), first.getText(), values);
+        } catch (StaleElementReferenceException e) {
+            values.clear();
+            return new ElementState(0, false, null, values);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.everis.util;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * ElementState is the state of a locator read by {@link ElementQueries}:
+ * how many elements were found and the visibility, text and attributes of the first one.
+ */
+public class ElementState {
+
+    private final int count;
+    private final boolean displayed;
+    private final String text;
+    private final Map<String, String> attributes;
+
+    public ElementState(int count, boolean displayed, String text, Map<String, String> attributes) {
+        this.count = count;
+        this.displayed = displayed;
+        this.text = text;
+        this.attributes = Collections.unmodifiableMap(attributes);
+    }
+
+    public boolean isPresent() { return count > 0; }
+
+    public int getCount() { return count; }
+
+    public boolean isDisplayed() { return displayed; }
+
+    /**
+     * @return visible text of the first element, empty when hidden, null when not present
+     */
+    public String getText() { return text; }
+
+    /**
+     * @param name attribute or property requested in the query
+     * @return its value on the first element, or null when absent
+     */
+    public String getAttribute(String name) { return attributes.get(name); }
+
+    public Map<String, String> getAttributes() { return attributes; }
+
+    @Override
+    public String toString() {
+        return "ElementState{count=" + count + ", displayed=" + displayed
+                + ", text=" + text + ", attributes=" + attributes + "}";
+    }
+}
@@ -0,0 +1,220 @@
+package com.everis.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.io.IOUtils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * FixtureServer is an embedded HTTP server that stands in for the sites used by the features,
+ * serving the pages stored in the test resources under "fixtures/&lt;host&gt;/".
+ *
+ * Enabled with -Dhermetic=true: the URL of a site with fixtures is rewritten to
+ * "http://&lt;host&gt;.localhost:&lt;port&gt;" (Chrome resolves *.localhost to this machine),
+ * so the host is still known by the server and root-relative links keep working.
+ * The port is random unless given with -Dhermetic.port.
+ *
+ * Requests are mapped to files by "fixtures/&lt;host&gt;/routes.properties":
+ * "&lt;path&gt;?&lt;param&gt;=&lt;value&gt;" is tried for each query parameter, then "&lt;path&gt;".
+ * Paths without a route are served from the host directory as static files.
+ */
+public class FixtureServer {
+
+    private static final boolean ENABLED = Boolean.getBoolean("hermetic");
+    private static final int PORT = Integer.getInteger("hermetic.port", 0);
+    private static final String ROOT = "fixtures/";
+    private static final String HOST_SUFFIX = ".localhost";
+
+    private static final Map<String, Optional<byte[]>> resources = new ConcurrentHashMap<>();
+    private static final Map<String, Properties> routes = new ConcurrentHashMap<>();
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    private FixtureServer() { }
+
+    /**
+     * @return true when the hermetic mode was enabled with -Dhermetic=true
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts the server, when it is not running yet.
+     */
+    public static synchronized void start() {
+        if (server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress("127.0.0.1", PORT), 0);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fixture-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", FixtureServer::handle);
+        server.start();
+        System.out.println("Fixture server listening on port " + server.getAddress().getPort());
+    }
+
+    /**
+     * Stops the server.
+     */
+    public static synchronized void stop() {
+        if (server == null) {
+            return;
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        executor = null;
+    }
+
+    /**
+     * Rewrites the URL of a site to the fixture server.
+     *
+     * @param url site URL used by a feature
+     * @return the URL on the fixture server
+     * @throws IllegalStateException when the server is not running or the site has no fixtures
+     */
+    public static synchronized String rewrite(String url) {
+        if (server == null) {
+            throw new IllegalStateException("Fixture server is not running");
+        }
+        try {
+            URI uri = new URI(url);
+            if (uri.getHost() == null || !hasFixtures(uri.getHost())) {
+                throw new IllegalStateException("Hermetic mode: no fixtures for " + url
+                        + " in src/test/resources/" + ROOT);
+            }
+            return new URI("http", null, uri.getHost() + HOST_SUFFIX, server.getAddress().getPort(),
+                    uri.getPath(), uri.getQuery(), uri.getFragment()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid URL: " + url, e);
+        }
+    }
+
+    private static boolean hasFixtures(String host) {
+        return !routes(host).isEmpty() || resource(host + "/index.html").isPresent();
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try {
+            String host = exchange.getRequestHeaders().getFirst("Host");
+            host = host == null ? "" : host.replaceAll(":\\d+$", "");
+            if (host.endsWith(HOST_SUFFIX)) {
+                host = host.substring(0, host.length() - HOST_SUFFIX.length());
+            }
+
+            String file = route(host, exchange.getRequestURI());
+            Optional<byte[]> body = file == null ? Optional.empty() : resource(host + "/" + file);
+            if (!body.isPresent()) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", contentType(file));
+            exchange.getResponseHeaders().set("Cache-Control", "no-store");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.get().length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body.get());
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Finds the file of a request: the route of the path with one of its query parameters,
+     * the route of the path, or the path itself.
+     */
+    private static String route(String host, URI uri) {
+        String path = uri.getPath() == null || uri.getPath().isEmpty() ? "/" : uri.getPath();
+        if (path.contains("..")) {
+            return null;
+        }
+        Properties hostRoutes = routes(host);
+        if (uri.getQuery() != null) {
+            for (String parameter : uri.getQuery().split("&")) {
+                String file = hostRoutes.getProperty(path + "?" + parameter);
+                if (file != null) {
+                    return file;
+                }
+            }
+        }
+        String file = hostRoutes.getProperty(path);
+        if (file != null) {
+            return file;
+        }
+        return path.endsWith("/") ? path.substring(1) + "index.html" : path.substring(1);
+    }
+
+    private static Properties routes(String host) {
+        return routes.computeIfAbsent(host, h -> {
+            Properties properties = new Properties();
+            resource(h + "/routes.properties").ifPresent(bytes -> {
+                try {
+                    properties.load(new ByteArrayInputStream(bytes));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            return properties;
+        });
+    }
+
+    private static Optional<byte[]> resource(String name) {
+        return resources.computeIfAbsent(name, n -> {
+            try (InputStream in = FixtureServer.class.getClassLoader().getResourceAsStream(ROOT + n)) {
+                return in == null ? Optional.empty() : Optional.of(IOUtils.toByteArray(in));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private static String contentType(String file) {
+        String extension = file.substring(file.lastIndexOf('.') + 1).toLowerCase();
+        switch (extension) {
+            case "html":
+                return "text/html; charset=utf-8";
+            case "css":
+                return "text/css; charset=utf-8";
+            case "js":
+                return "application/javascript; charset=utf-8";
+            case "png":
+                return "image/png";
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "svg":
+                return "image/svg+xml";
+            default:
+                return "application/octet-stream";
+        }
+    }
+}
@@ -5,42 +5,50 @@ import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.apache.commons.lang3.reflect.FieldUtils;
 import org.apache.commons.lang3.reflect.MethodUtils;
 import org.junit.rules.TestWatcher;
 import org.junit.runner.Description;
-import org.openqa.selenium.UnexpectedAlertBehaviour;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.remote.CapabilityType;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
 import com.everis.pages.BasePage;
+import com.everis.pages.PageObjects;
 
 import io.cucumber.core.backend.TestCaseState;
 import io.cucumber.java.After;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
-import io.github.bonigarcia.wdm.WebDriverManager;
 
 /**
  * Hooks class integrates with JUnit and Cucumber lifecycle.
  * - Initializes reporting structure (ExtentReports).
  * - Manages WebDriver lifecycle (setup, quit).
  * - Handles before/after scenario actions including logging and screenshots.
+ *
+ * The driver, scenario and ExtentTest are kept per thread, so scenarios can be
+ * executed in parallel (see the "parallel" profile in pom.xml). The ExtentReports
+ * instance is shared by all threads.
  */
 public class Hooks extends TestWatcher {
 
-    private static WebDriver driver;
-    private static ExtentReports extentReport;
-    private static Scenario scenario;
-    private static ExtentTest extentTest;
+    private static final ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private static final ThreadLocal<Scenario> scenario = new ThreadLocal<>();
+    private static final ThreadLocal<ExtentTest> extentTest = new ThreadLocal<>();
+    private static final ThreadLocal<String> browserProfile = new ThreadLocal<>();
+    private static volatile ExtentReports extentReport;
+    private static String reportPath;
+    private static final Map<String, String> systemInfo = new LinkedHashMap<>();
 
     public Hooks() {
         super();
@@ -56,16 +64,27 @@ public class Hooks extends TestWatcher {
     protected void starting(Description description) {
         super.starting(description);
 
-        new File("target/report/html/img").mkdirs();
-
-        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(
-                "target/report/html/" + description.getDisplayName().replace("tests.", "") + ".html"
-        );
-        htmlReporter.config().setEncoding("ISO-8859-1");
+        new File(ScreenshotWriter.DIRECTORY).mkdirs();
 
+        reportPath = "target/report/html/" + description.getDisplayName().replace("tests.", "") + ".html";
         extentReport = new ExtentReports();
+        addSystemInfo("os.name", System.getProperty("os.name"));
+
+        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(reportPath);
+        htmlReporter.config().setEncoding("ISO-8859-1");
         extentReport.attachReporter(htmlReporter);
-        extentReport.setSystemInfo("os.name", System.getProperty("os.name"));
+
+        if (ReportJournal.isEnabled()) {
+            // Streaming mode: extentReport is never flushed, the HTML is rendered from the journal at the end
+            ReportJournal.start(ReportJournal.DEFAULT_PATH);
+        }
+        if (FixtureServer.isEnabled()) {
+            FixtureServer.start();
+            addSystemInfo("hermetic", "true");
+        }
+        if (Shards.isEnabled()) {
+            addSystemInfo("shard", Shards.index() + " of " + Shards.count());
+        }
     }
 
     /**
@@ -76,13 +95,21 @@ public class Hooks extends TestWatcher {
      */
     @Before
     public void beforeScenario(Scenario scenario) {
-        Hooks.scenario = scenario;
-        extentTest = extentReport.createTest("Scenario: " + scenario.getName(), scenario.getName());
-        extentTest.assignCategory("feature:" + scenario.getId().replaceAll(";.*", ""));
+        Hooks.scenario.set(scenario);
+        if (CommandLog.isEnabled()) {
+            CommandLog.scenarioStarted();
+        }
+        ExtentTest test = extentReport.createTest("Scenario: " + scenario.getName(), scenario.getName());
+        test.assignCategory("feature:" + scenario.getId().replaceAll(";.*", ""));
 
         Collection<String> tags = scenario.getSourceTagNames();
         for (String tag : tags) {
-            extentTest.assignCategory(tag);
+            test.assignCategory(tag);
+        }
+        extentTest.set(test);
+        Downloads.start(scenario);
+        if (Checkpoints.keyOf(tags) != null) {
+            restoreCheckpoint(tags);
         }
 
         System.out.println("Scenario: " + scenario.getName());
@@ -96,18 +123,40 @@ public class Hooks extends TestWatcher {
      */
     @After
     public void afterScenario() throws IOException {
-        if (scenario.isFailed() && driver != null) {
-            BasePage basePage = new BasePage();
-            basePage.logPrintFail("The test has failed.");
-
-            Throwable throwable = logError(scenario);
-            extentTest.fail(throwable);
-        }
-
-        extentReport.flush();
-
-        if (driver != null) {
-            driver.quit();
+        try {
+            if (getScenario().isFailed() && getDriver() != null) {
+                BasePage basePage = new BasePage();
+                basePage.logPrintFail("The test has failed.");
+
+                Throwable throwable = logError(getScenario());
+                getExtentTest().fail(throwable);
+            }
+
+            if (CommandLog.isEnabled()) {
+                CommandLog.scenarioFinished(getScenario().getName(), getExtentTest());
+            }
+
+            try (Timeline.Span span = Timeline.span("report", "flush", null)) {
+                ScreenshotWriter.awaitCompletion();
+                if (ReportJournal.isEnabled()) {
+                    ReportJournal.append(getExtentTest());
+                    extentReport.removeTest(getExtentTest());
+                } else {
+                    extentReport.flush();
+                }
+            }
+
+            releaseDriver();
+        } finally {
+            PageObjects.clear();
+            Downloads.finish();
+            TestData.clear();
+            Checkpoints.clear();
+            CommandLog.clear();
+            driver.remove();
+            browserProfile.remove();
+            scenario.remove();
+            extentTest.remove();
         }
     }
 
@@ -135,43 +184,56 @@ public class Hooks extends TestWatcher {
 
     @Override
     protected void finished(Description description) {
+        ScreenshotWriter.awaitCompletion();
+        ScreenshotStore.enforceRetention();
+        System.out.println("Screenshots: " + ScreenshotStore.summary());
+        addSystemInfo("screenshots", ScreenshotStore.summary());
+
+        if (ReportJournal.isEnabled()) {
+            ReportJournal.close();
+            ReportJournal.render(reportPath, systemInfo, Collections.singletonList(ReportJournal.DEFAULT_PATH));
+        } else {
+            extentReport.flush();
+        }
+
+        WaitTelemetry.save();
+        DriverPool.shutdown();
+        TestData.close();
+        if (CommandLog.isEnabled()) {
+            CommandLog.save(CommandLog.DEFAULT_PATH);
+        }
+        FixtureServer.stop();
+        CachingProxy.stop();
         super.finished(description);
     }
 
+    private static void addSystemInfo(String name, String value) {
+        systemInfo.put(name, value);
+        extentReport.setSystemInfo(name, value);
+    }
+
     // ===== Getters =====
 
-    public static WebDriver getDriver() { return driver; }
+    public static WebDriver getDriver() { return driver.get(); }
+
+    public static ExtentTest getExtentTest() { return extentTest.get(); }
 
-    public static ExtentTest getExtentTest() { return extentTest; }
+    public static Scenario getScenario() { return scenario.get(); }
 
-    public static Scenario getScenario() { return scenario; }
+    public static String getBrowserProfile() { return browserProfile.get(); }
 
     public static ExtentReports getExtentReports() { return extentReport; }
 
     // ===== Browser Navigation =====
 
     /**
-     * Opens Chrome browser with predefined options and navigates to the given URL.
+     * Opens Chrome browser with the desktop profile, or the one selected for the scenario,
+     * and navigates to the given URL.
      *
      * @param url the target website URL
      */
     public static void navigateToULRChrome(String url) {
-        String downloadFilepath = System.getProperty("user.dir") + "/target/temp";
-
-        HashMap<String, Object> chromePrefs = new HashMap<>();
-        chromePrefs.put("download.default_directory", downloadFilepath);
-        chromePrefs.put("credentials_enable_service", false);
-
-        ChromeOptions options = new ChromeOptions();
-        options.setExperimentalOption("prefs", chromePrefs);
-        options.addArguments("disable-infobars");
-        options.setCapability(CapabilityType.UNEXPECTED_ALERT_BEHAVIOUR, UnexpectedAlertBehaviour.ACCEPT);
-
-        WebDriverManager.chromedriver().setup();
-
-        driver = new ChromeDriver(options);
-        driver.manage().window().maximize();
-        driver.navigate().to(url);
+        navigateTo(url, BrowserProfile.DESKTOP);
     }
 
     /**
@@ -180,24 +242,111 @@ public class Hooks extends TestWatcher {
      * @param url the target website URL
      */
     public static void navigateToULRChromeMobile(String url) {
-        String downloadFilepath = System.getProperty("user.dir") + "/target/temp";
+        navigateTo(url, BrowserProfile.MOBILE);
+    }
+
+    /**
+     * Opens Chrome browser with the profile selected for the scenario (see {@link BrowserProfile})
+     * and navigates to the given URL, served by the {@link FixtureServer} in hermetic mode.
+     *
+     * @param url            the target website URL
+     * @param defaultProfile profile used when the scenario and the run do not select one
+     */
+    public static void navigateTo(String url, String defaultProfile) {
+        String target = FixtureServer.isEnabled() ? FixtureServer.rewrite(url) : url;
+        startBrowser(defaultProfile).navigate().to(target);
+    }
+
+    /**
+     * Opens Chrome browser with the profile selected for the scenario, without navigating.
+     *
+     * @param defaultProfile profile used when the scenario and the run do not select one
+     * @return the browser bound to the current thread
+     */
+    public static WebDriver startBrowser(String defaultProfile) {
+        Collection<String> tags = getScenario() != null
+                ? getScenario().getSourceTagNames()
+                : Collections.<String>emptyList();
+        return startDriver(BrowserProfile.select(tags, defaultProfile));
+    }
+
+    /**
+     * Restores the checkpoint declared by the scenario tags, when it was saved earlier in the run.
+     * On failure the browser is released and the scenario runs its setup steps.
+     */
+    private static void restoreCheckpoint(Collection<String> tags) {
+        try {
+            Checkpoints.restore(tags);
+        } catch (RuntimeException e) {
+            System.err.println("Error restoring checkpoint, running the setup steps: " + e);
+            Checkpoints.clear();
+            releaseDriver();
+            driver.remove();
+        }
+    }
 
+    /**
+     * Gives the browser of the scenario back to the {@link DriverPool}, or quits it.
+     */
+    private static void releaseDriver() {
+        if (getDriver() != null) {
+            if (DriverPool.isEnabled()) {
+                DriverPool.release(getDriver());
+            } else {
+                getDriver().quit();
+            }
+        }
+    }
+
+    /**
+     * Starts a new browser, or takes one from the {@link DriverPool} when it is enabled,
+     * and binds it to the current scenario thread.
+     *
+     * @param profile browser profile, its name is used to group pooled browsers
+     * @return the browser bound to the current thread
+     */
+    private static WebDriver startDriver(BrowserProfile profile) {
         HashMap<String, Object> chromePrefs = new HashMap<>();
-        chromePrefs.put("download.default_directory", downloadFilepath);
+        chromePrefs.put("download.default_directory", Downloads.current().toString());
         chromePrefs.put("credentials_enable_service", false);
+        ChromeOptions options = profile.toChromeOptions(chromePrefs);
+        if (CachingProxy.isEnabled()) {
+            options.addArguments("--proxy-server=" + CachingProxy.start());
+        }
 
-        ChromeOptions options = new ChromeOptions();
-        options.setExperimentalOption("prefs", chromePrefs);
-        options.addArguments("disable-infobars", "--disable-print-preview");
+        WebDriver webDriver;
+        if (DriverPool.isEnabled()) {
+            // A pooled browser keeps the download directory of the scenario that started it
+            webDriver = DriverPool.acquire(profile.getName(), () -> newChromeDriver(profile, options));
+            Downloads.redirect(webDriver);
+        } else {
+            webDriver = newChromeDriver(profile, options);
+        }
+        driver.set(webDriver);
+        browserProfile.set(profile.getName());
+        return webDriver;
+    }
 
-        Map<String, String> mobileEmulation = new HashMap<>();
-        mobileEmulation.put("deviceName", "iPhone X");
-        options.setExperimentalOption("mobileEmulation", mobileEmulation);
+    private static WebDriver newChromeDriver(BrowserProfile profile, ChromeOptions options) {
+        DriverBinaries.resolveChromeDriver();
 
-        WebDriverManager.chromedriver().setup();
+        ChromeDriver webDriver;
+        try {
+            webDriver = new ChromeDriver(options);
+        } catch (SessionNotCreatedException e) {
+            // A cached chromedriver may no longer match the installed Chrome
+            if (!DriverBinaries.invalidate()) {
+                throw e;
+            }
+            DriverBinaries.resolveChromeDriver();
+            webDriver = new ChromeDriver(options);
+        }
+        DriverBinaries.recordBrowserVersion(webDriver.getCapabilities().getVersion());
+        if (CommandLog.isEnabled()) {
+            CommandLog.instrument(webDriver);
+        }
 
-        driver = new ChromeDriver(options);
-        driver.manage().window().maximize();
-        driver.navigate().to(url);
+        profile.configure(webDriver);
+        return webDriver;
     }
 }
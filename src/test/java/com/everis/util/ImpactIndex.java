@@ -0,0 +1,272 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.gherkin.messages.GherkinMessagesFeatureParser;
+
+/**
+ * ImpactIndex records the source files each scenario ("&lt;feature uri&gt;:&lt;line&gt;") touches during a run:
+ * its feature file, the step definition and hook classes that ran, the page object classes
+ * it created and the datasets it read. It is kept between runs as a reverse index,
+ * source file to scenarios, in "impact.index.file" (default ".bdd-cache/impact-index.tsv"),
+ * and used by {@link ImpactSelector} to select the scenarios affected by a change.
+ *
+ * Only the scenarios of a run are updated; the entries of the other scenarios are kept,
+ * except, in the features of the run, the ones whose line no longer starts a scenario
+ * (e.g. after lines were moved by an edit of the feature).
+ */
+public class ImpactIndex {
+
+    public static final Path FILE = Paths.get(System.getProperty("impact.index.file", ".bdd-cache/impact-index.tsv"));
+
+    private static final String JAVA_SOURCES = "src/test/java/";
+    private static final String RESOURCES = "src/test/resources/";
+
+    private static final Map<String, Set<String>> touchedByScenario = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Set<String>> current = new ThreadLocal<>();
+
+    private final Map<String, Set<String>> scenariosByFile = new TreeMap<>();
+
+    private ImpactIndex() { }
+
+    /**
+     * Starts recording the files touched by a scenario in the current thread.
+     *
+     * @param featureUri URI of the feature file of the scenario
+     */
+    static void scenarioStarted(URI featureUri) {
+        Set<String> files = new TreeSet<>();
+        String feature = sourceOf(featureUri);
+        if (feature != null) {
+            files.add(feature);
+        }
+        current.set(files);
+    }
+
+    /**
+     * Stops recording the files of the scenario of the current thread.
+     *
+     * @param scenario scenario key
+     */
+    static void scenarioFinished(String scenario) {
+        Set<String> files = current.get();
+        current.remove();
+        if (files != null) {
+            touchedByScenario.put(scenario, files);
+        }
+    }
+
+    /**
+     * Records that the scenario of the current thread used a class (and its superclasses
+     * from the test sources).
+     *
+     * @param type step definition, hook or page object class
+     */
+    public static void touched(Class<?> type) {
+        Set<String> files = current.get();
+        if (files == null) {
+            return;
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            Class<?> outer = c;
+            while (outer.getEnclosingClass() != null) {
+                outer = outer.getEnclosingClass();
+            }
+            String source = JAVA_SOURCES + outer.getName().replace('.', '/') + ".java";
+            if (Files.exists(Paths.get(source))) {
+                files.add(source);
+            }
+        }
+    }
+
+    /**
+     * Records that the scenario of the current thread read a file.
+     *
+     * @param file data file, relative to the project directory
+     */
+    public static void touched(Path file) {
+        Set<String> files = current.get();
+        if (files != null) {
+            files.add(file.toString().replace('\\', '/'));
+        }
+    }
+
+    /**
+     * Records a class by the code location Cucumber gives to a step or hook,
+     * e.g. "com.everis.steps.HomeSteps.accessSite(java.lang.String)".
+     */
+    static void touchedCode(String codeLocation) {
+        if (codeLocation == null) {
+            return;
+        }
+        String method = codeLocation.replaceAll("\\(.*", "");
+        int separator = method.lastIndexOf('.');
+        if (separator <= 0) {
+            return;
+        }
+        try {
+            touched(Class.forName(method.substring(0, separator), false, ImpactIndex.class.getClassLoader()));
+        } catch (ClassNotFoundException e) {
+            // Glue outside the test sources
+        }
+    }
+
+    /**
+     * Replaces, in the index file, the entries of the scenarios recorded in this run,
+     * and drops the stale scenarios of the features of the run.
+     */
+    static void save() {
+        if (touchedByScenario.isEmpty()) {
+            return;
+        }
+        ImpactIndex index = load();
+        Map<String, Set<Integer>> currentLines = new HashMap<>();
+        for (String scenario : touchedByScenario.keySet()) {
+            currentLines.computeIfAbsent(featureOf(scenario), ImpactIndex::scenarioLines);
+        }
+        for (Set<String> scenarios : index.scenariosByFile.values()) {
+            scenarios.removeAll(touchedByScenario.keySet());
+            scenarios.removeIf(scenario -> {
+                Set<Integer> lines = currentLines.get(featureOf(scenario));
+                return lines != null && !lines.contains(lineOf(scenario));
+            });
+        }
+        touchedByScenario.forEach((scenario, files) -> {
+            for (String file : files) {
+                index.scenariosByFile.computeIfAbsent(file, f -> new TreeSet<>()).add(scenario);
+            }
+        });
+        index.scenariosByFile.values().removeIf(Set::isEmpty);
+
+        List<String> lines = new ArrayList<>();
+        index.scenariosByFile.forEach((file, scenarios) -> lines.add(file + "\t" + String.join(" ", scenarios)));
+        try {
+            if (FILE.getParent() != null) {
+                Files.createDirectories(FILE.getParent());
+            }
+            Files.write(FILE, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error saving impact index: " + e);
+        }
+    }
+
+    private static String featureOf(String scenario) {
+        return scenario.substring(0, scenario.lastIndexOf(':'));
+    }
+
+    private static int lineOf(String scenario) {
+        return Integer.parseInt(scenario.substring(scenario.lastIndexOf(':') + 1));
+    }
+
+    /**
+     * Reads the lines of the scenarios (and of the examples of the outlines) of a feature.
+     *
+     * @param featureUri feature URI, as in the scenario keys
+     * @return the lines, or null when the feature cannot be read (its entries are then kept)
+     */
+    private static Set<Integer> scenarioLines(String featureUri) {
+        try {
+            URI uri = new URI(featureUri);
+            String source = sourceOf(uri);
+            if (source == null || !Files.isRegularFile(Paths.get(source))) {
+                return null;
+            }
+            String text = new String(Files.readAllBytes(Paths.get(source)), StandardCharsets.UTF_8);
+            Feature feature = new GherkinMessagesFeatureParser().parse(uri, text, UUID::randomUUID).orElse(null);
+            if (feature == null) {
+                return null;
+            }
+            Set<Integer> lines = new HashSet<>();
+            for (Pickle pickle : feature.getPickles()) {
+                lines.add(pickle.getLocation().getLine());
+            }
+            return lines;
+        } catch (URISyntaxException | IOException | RuntimeException e) {
+            System.err.println("Error reading the scenarios of " + featureUri + ", keeping its entries: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the index file.
+     *
+     * @return the index, empty when there is no file yet
+     */
+    public static ImpactIndex load() {
+        ImpactIndex index = new ImpactIndex();
+        if (!Files.exists(FILE)) {
+            return index;
+        }
+        try {
+            for (String line : Files.readAllLines(FILE, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length == 2) {
+                    index.scenariosByFile.put(columns[0], new TreeSet<>(Arrays.asList(columns[1].split(" "))));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading impact index, starting from scratch: " + e);
+            index.scenariosByFile.clear();
+        }
+        return index;
+    }
+
+    public boolean isEmpty() {
+        return scenariosByFile.isEmpty();
+    }
+
+    /**
+     * @param file source file, relative to the project directory
+     * @return true when some scenario touched the file
+     */
+    public boolean isIndexed(String file) {
+        return scenariosByFile.containsKey(file);
+    }
+
+    /**
+     * @param files source files, relative to the project directory
+     * @return the scenarios that touched any of the files
+     */
+    public Set<String> scenariosOf(Collection<String> files) {
+        Set<String> scenarios = new TreeSet<>();
+        for (String file : files) {
+            scenarios.addAll(scenariosByFile.getOrDefault(file, new TreeSet<>()));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Maps a feature URI ("classpath:features/x.feature" or "file:...") to its source file.
+     */
+    static String sourceOf(URI featureUri) {
+        if ("classpath".equals(featureUri.getScheme())) {
+            return RESOURCES + featureUri.getSchemeSpecificPart().replaceFirst("^/", "");
+        }
+        if ("file".equals(featureUri.getScheme())) {
+            Path path = Paths.get(featureUri);
+            Path project = Paths.get("").toAbsolutePath();
+            return (path.startsWith(project) ? project.relativize(path) : path).toString().replace('\\', '/');
+        }
+        return null;
+    }
+}
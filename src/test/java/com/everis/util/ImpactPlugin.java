@@ -0,0 +1,29 @@
+package com.everis.util;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+/**
+ * ImpactPlugin feeds the {@link ImpactIndex} with the feature, step definitions and hooks
+ * of each scenario, and saves the index at the end of the run.
+ */
+public class ImpactPlugin implements ConcurrentEventListener {
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class,
+                event -> ImpactIndex.scenarioStarted(event.getTestCase().getUri()));
+        publisher.registerHandlerFor(TestStepStarted.class,
+                event -> ImpactIndex.touchedCode(event.getTestStep().getCodeLocation()));
+        publisher.registerHandlerFor(TestCaseFinished.class, event -> {
+            TestCase testCase = event.getTestCase();
+            ImpactIndex.scenarioFinished(testCase.getUri() + ":" + testCase.getLocation().getLine());
+        });
+        publisher.registerHandlerFor(TestRunFinished.class, event -> ImpactIndex.save());
+    }
+}
@@ -0,0 +1,146 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * ImpactSelector writes, as a rerun file, the scenarios affected by the changes since a git revision,
+ * according to the {@link ImpactIndex} of previous runs:
+ * - a changed feature file selects the whole feature;
+ * - a changed source file selects the scenarios that touched it;
+ * - files matching "impact.ignore" (default "**.md,.gitignore,src/jmh/**") select nothing;
+ * - any other change (pom.xml, framework classes, fixtures...), or an empty index, selects every feature.
+ *
+ * Usage: ImpactSelector [&lt;revision&gt; [&lt;output file&gt;]], by default HEAD and target/impact.txt
+ * (see the "impact" Maven profile). The selection runs with -Dcucumber.features=@target/impact.txt.
+ */
+public class ImpactSelector {
+
+    private static final String FEATURES = System.getProperty("impact.features", "classpath:features");
+    private static final String RESOURCES = "src/test/resources/";
+    private static final List<PathMatcher> IGNORED = Arrays.stream(
+                    System.getProperty("impact.ignore", "**.md,.gitignore,src/jmh/**").split(","))
+            .map(String::trim)
+            .filter(glob -> !glob.isEmpty())
+            .map(glob -> FileSystems.getDefault().getPathMatcher("glob:" + glob))
+            .collect(Collectors.toList());
+
+    private ImpactSelector() { }
+
+    public static void main(String[] args) throws IOException {
+        String revision = args.length > 0 ? args[0] : "HEAD";
+        Path output = Paths.get(args.length > 1 ? args[1] : "target/impact.txt");
+
+        List<String> changed;
+        try {
+            changed = changedFiles(revision);
+        } catch (IOException e) {
+            System.err.println("Error reading the git changes, selecting every feature: " + e);
+            write(output, Arrays.asList(FEATURES));
+            return;
+        }
+        List<String> selection = select(ImpactIndex.load(), changed);
+        write(output, selection);
+        System.out.println(changed.size() + " changed files since " + revision + ", selected: "
+                + (selection.isEmpty() ? "no scenarios" : String.join(" ", selection)) + " (" + output + ")");
+    }
+
+    /**
+     * Selects the features and scenarios affected by the changed files.
+     *
+     * @param index   impact index of previous runs
+     * @param changed changed files, relative to the project directory
+     * @return rerun file lines: "&lt;feature uri&gt;[:&lt;line&gt;...]", or the features root when everything is affected
+     */
+    static List<String> select(ImpactIndex index, List<String> changed) {
+        Set<String> wholeFeatures = new TreeSet<>();
+        List<String> indexed = new ArrayList<>();
+        for (String file : changed) {
+            if (IGNORED.stream().anyMatch(matcher -> matcher.matches(Paths.get(file)))) {
+                continue;
+            }
+            if (file.endsWith(".feature") && file.startsWith(RESOURCES)) {
+                if (Files.exists(Paths.get(file))) {
+                    wholeFeatures.add("classpath:" + file.substring(RESOURCES.length()));
+                }
+            } else if (index.isIndexed(file)) {
+                indexed.add(file);
+            } else {
+                System.out.println("Not in the impact index, selecting every feature: " + file);
+                return Arrays.asList(FEATURES);
+            }
+        }
+        if (index.isEmpty() && !indexed.isEmpty()) {
+            return Arrays.asList(FEATURES);
+        }
+
+        Map<String, Set<Integer>> linesByFeature = new TreeMap<>();
+        for (String scenario : index.scenariosOf(indexed)) {
+            int separator = scenario.lastIndexOf(':');
+            String feature = scenario.substring(0, separator);
+            if (!wholeFeatures.contains(feature)) {
+                linesByFeature.computeIfAbsent(feature, f -> new TreeSet<>())
+                        .add(Integer.parseInt(scenario.substring(separator + 1)));
+            }
+        }
+        List<String> selection = new ArrayList<>(wholeFeatures);
+        linesByFeature.forEach((feature, lines) -> selection.add(feature + ":"
+                + lines.stream().map(String::valueOf).collect(Collectors.joining(":"))));
+        return selection;
+    }
+
+    /**
+     * Lists the files changed since the revision, committed or not, and the new untracked files.
+     */
+    private static List<String> changedFiles(String revision) throws IOException {
+        Set<String> files = new TreeSet<>(git("diff", "--name-only", "--relative", revision));
+        files.addAll(git("ls-files", "--others", "--exclude-standard"));
+        return new ArrayList<>(files);
+    }
+
+    private static List<String> git(String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("git");
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        String out;
+        try (InputStream in = process.getInputStream()) {
+            out = IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+        try {
+            if (process.waitFor() != 0) {
+                throw new IOException(String.join(" ", command) + " failed: " + out.trim());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        return Arrays.stream(out.split("\\R"))
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private static void write(Path output, List<String> selection) throws IOException {
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, selection, StandardCharsets.UTF_8);
+    }
+}
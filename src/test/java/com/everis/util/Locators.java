@@ -0,0 +1,73 @@
+package com.everis.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
+
+/**
+ * Locators translates Selenium locators so they can be evaluated by scripts inside the page.
+ */
+public class Locators {
+
+    private static final List<String> SCRIPT_STRATEGIES = Arrays.asList(
+            "id", "name", "className", "tagName", "cssSelector", "xpath", "linkText", "partialLinkText");
+
+    private Locators() { }
+
+    /**
+     * Returns the locator used by an element proxy created by PageFactory or PageObjects.
+     *
+     * @param element element proxy
+     * @return the locator of the element, or null when it is not a known proxy
+     */
+    public static By of(WebElement element) {
+        if (!Proxy.isProxyClass(element.getClass())) {
+            return null;
+        }
+        try {
+            InvocationHandler handler = Proxy.getInvocationHandler(element);
+            if (FieldUtils.getField(handler.getClass(), "by", true) != null) {
+                return (By) FieldUtils.readField(handler, "by", true);
+            }
+            Object locator = FieldUtils.readField(handler, "locator", true);
+            return (By) FieldUtils.readField(locator, "by", true);
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Splits a locator into the strategy and value understood by the page scripts,
+     * based on the toString format of Selenium's By (e.g. "By.cssSelector: #id").
+     *
+     * @param by Selenium locator
+     * @return map with "using" and "value", or null when the strategy is not supported
+     */
+    public static Map<String, String> toScript(By by) {
+        if (by == null) {
+            return null;
+        }
+        String description = by.toString();
+        int separator = description.indexOf(": ");
+        if (!description.startsWith("By.") || separator < 0) {
+            return null;
+        }
+
+        String using = description.substring(3, separator);
+        if (!SCRIPT_STRATEGIES.contains(using)) {
+            return null;
+        }
+
+        Map<String, String> locator = new HashMap<>();
+        locator.put("using", using);
+        locator.put("value", description.substring(separator + 2));
+        return locator;
+    }
+}
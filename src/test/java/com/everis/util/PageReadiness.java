@@ -0,0 +1,72 @@
+package com.everis.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+/**
+ * PageReadiness waits until the page is idle instead of sleeping for a fixed time.
+ * A tracker injected in the page counts in-flight XHR/fetch requests and running
+ * animations, and the page is idle once none of them happened during a quiet period
+ * ("page.idle.quietMillis", default 200) with the document completely loaded.
+ *
+ * Disabled with -Dpage.readiness=false, which restores the fixed sleeps.
+ */
+public class PageReadiness {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("page.readiness", "true"));
+    private static final long QUIET_MILLIS = Long.getLong("page.idle.quietMillis", 200L);
+    private static final String SCRIPT = Utils.readResourceToString("scripts/wait-for-page-idle.js");
+
+    private PageReadiness() { }
+
+    /**
+     * @param driver browser of the current scenario
+     * @return true when the page idle wait can be used with this browser
+     */
+    public static boolean isEnabled(WebDriver driver) {
+        return ENABLED && driver instanceof JavascriptExecutor;
+    }
+
+    /**
+     * Waits until the page is idle for the configured quiet period.
+     *
+     * @param driver        browser of the current scenario
+     * @param timeoutMillis maximum time to wait
+     * @return true when the page became idle, false on timeout or when the page could not be observed
+     */
+    public static boolean waitForIdle(WebDriver driver, long timeoutMillis) {
+        return waitForIdle(driver, timeoutMillis, QUIET_MILLIS);
+    }
+
+    /**
+     * Waits until the page is idle for the given quiet period.
+     *
+     * @param driver        browser of the current scenario
+     * @param timeoutMillis maximum time to wait
+     * @param quietMillis   time without network requests or animations to consider the page idle
+     * @return true when the page became idle, false on timeout or when the page could not be observed
+     */
+    public static boolean waitForIdle(WebDriver driver, long timeoutMillis, long quietMillis) {
+        long start = System.nanoTime();
+        try {
+            DomWaits.ensureScriptTimeout(driver, timeoutMillis + DomWaits.SCRIPT_TIMEOUT_MARGIN_MILLIS);
+            return Boolean.TRUE.equals(((JavascriptExecutor) driver)
+                    .executeAsyncScript(SCRIPT, quietMillis, timeoutMillis));
+        } catch (WebDriverException e) {
+            // The page was replaced during the wait (navigation): wait on the new page for the remaining time
+            long remaining = timeoutMillis - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            if (remaining <= 0) {
+                return false;
+            }
+            try {
+                return Boolean.TRUE.equals(((JavascriptExecutor) driver)
+                        .executeAsyncScript(SCRIPT, quietMillis, remaining));
+            } catch (WebDriverException again) {
+                return false;
+            }
+        }
+    }
+}
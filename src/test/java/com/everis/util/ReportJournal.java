@@ -0,0 +1,247 @@
+package com.everis.util;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.MediaEntityBuilder;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.ScreenCapture;
+import com.aventstack.extentreports.model.Test;
+import com.aventstack.extentreports.model.TestAttribute;
+import com.aventstack.extentreports.reporter.ExtentHtmlReporter;
+import com.google.gson.Gson;
+
+/**
+ * ReportJournal is the streaming mode of the Extent report, enabled with -Dreport.streaming=true.
+ * - Each finished scenario is appended as one JSON line to "target/report/journal.jsonl"
+ *   and removed from the ExtentReports instance, so memory does not grow with the suite.
+ * - The HTML report is rendered once, at the end of the run, from the journal.
+ *   Extent builds the whole HTML in memory, so this final render holds every test of the report
+ *   at once: memory is bounded during the run, not at the end. To keep the render small, only the
+ *   first "report.render.detailLimit" tests (default 1000) keep their logs and screenshots;
+ *   after that, passed tests are rendered with a single log line, while tests with failures,
+ *   warnings or skips keep every detail. The journal always keeps everything.
+ * It is always enabled in sharded runs, where the journals of the shards are merged by {@link ShardMerge}.
+ */
+public class ReportJournal {
+
+    public static final Path DEFAULT_PATH = Paths.get("target/report/journal.jsonl");
+
+    private static final boolean ENABLED = Boolean.getBoolean("report.streaming");
+    private static final int DETAIL_LIMIT = Integer.getInteger("report.render.detailLimit", 1000);
+    private static final Gson gson = new Gson();
+
+    private static BufferedWriter writer;
+
+    private ReportJournal() { }
+
+    /**
+     * @return true when the streaming mode was enabled with -Dreport.streaming=true or the run is sharded
+     */
+    public static boolean isEnabled() {
+        return ENABLED || Shards.isEnabled();
+    }
+
+    /**
+     * Creates an empty journal, replacing the one of a previous run.
+     *
+     * @param path journal file
+     */
+    public static synchronized void start(Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Appends a finished test, with its logs and child nodes, to the journal.
+     *
+     * @param test finished scenario test
+     */
+    public static synchronized void append(ExtentTest test) {
+        try {
+            writer.write(gson.toJson(toEntry(test.getModel())));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Closes the journal of the current run.
+     */
+    public static synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            System.err.println("Error closing report journal: " + e);
+        }
+        writer = null;
+    }
+
+    /**
+     * Renders an HTML report from one or more journals, reading them line by line.
+     * The rendered report is held in memory until it is written (see the class comment).
+     *
+     * @param reportPath HTML report file
+     * @param systemInfo system information shown in the report
+     * @param journals   journal files, rendered in the given order
+     */
+    public static void render(String reportPath, Map<String, String> systemInfo, List<Path> journals) {
+        ExtentHtmlReporter htmlReporter = new ExtentHtmlReporter(reportPath);
+        htmlReporter.config().setEncoding("ISO-8859-1");
+
+        ExtentReports extentReports = new ExtentReports();
+        extentReports.attachReporter(htmlReporter);
+        systemInfo.forEach(extentReports::setSystemInfo);
+
+        int rendered = 0;
+        for (Path journal : journals) {
+            if (!Files.exists(journal)) {
+                continue;
+            }
+            try (BufferedReader reader = Files.newBufferedReader(journal, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        Entry entry = gson.fromJson(line, Entry.class);
+                        ExtentTest test = extentReports.createTest(entry.name, entry.description);
+                        if (rendered++ < DETAIL_LIMIT || !entry.isPassed()) {
+                            replay(test, entry);
+                        } else {
+                            replaySummary(test, entry);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        extentReports.flush();
+    }
+
+    private static Entry toEntry(Test model) {
+        Entry entry = new Entry();
+        entry.name = model.getName();
+        entry.description = model.getDescription();
+        entry.start = model.getStartTime().getTime();
+        entry.end = model.getEndTime() != null ? model.getEndTime().getTime() : entry.start;
+        for (TestAttribute category : model.getCategoryContext().getAll()) {
+            entry.categories.add(category.getName());
+        }
+        for (Log log : model.getLogContext().getAll()) {
+            LogEntry logEntry = new LogEntry();
+            logEntry.status = log.getStatus().name();
+            logEntry.details = log.getDetails();
+            logEntry.timestamp = log.getTimestamp().getTime();
+            if (log.hasScreenCapture()) {
+                for (ScreenCapture capture : log.getScreenCaptureContext().getAll()) {
+                    // Extent appends the image markup to the details, it is added again on replay
+                    logEntry.details = logEntry.details.replace(capture.getSource(), "");
+                    logEntry.screenshots.add(capture.getPath());
+                }
+            }
+            entry.logs.add(logEntry);
+        }
+        for (Test child : model.getNodeContext().getAll()) {
+            entry.children.add(toEntry(child));
+        }
+        return entry;
+    }
+
+    private static void replay(ExtentTest test, Entry entry) throws IOException {
+        for (String category : entry.categories) {
+            test.assignCategory(category);
+        }
+        for (LogEntry logEntry : entry.logs) {
+            Status status = Status.valueOf(logEntry.status);
+            if (logEntry.screenshots.isEmpty()) {
+                test.log(status, logEntry.details);
+            } else {
+                test.log(status, logEntry.details, MediaEntityBuilder
+                        .createScreenCaptureFromPath(logEntry.screenshots.get(0))
+                        .build());
+            }
+            List<Log> logs = test.getModel().getLogContext().getAll();
+            logs.get(logs.size() - 1).setTimestamp(new Date(logEntry.timestamp));
+        }
+        for (Entry child : entry.children) {
+            replay(test.createNode(child.name, child.description), child);
+        }
+        test.getModel().setStartTime(new Date(entry.start));
+        test.getModel().setEndTime(new Date(entry.end));
+    }
+
+    /**
+     * Replays a passed test without its logs and child nodes.
+     */
+    private static void replaySummary(ExtentTest test, Entry entry) {
+        for (String category : entry.categories) {
+            test.assignCategory(category);
+        }
+        test.pass("Passed, " + entry.countLogs() + " logs not rendered (report.render.detailLimit), see the journal");
+        test.getModel().setStartTime(new Date(entry.start));
+        test.getModel().setEndTime(new Date(entry.end));
+    }
+
+    /**
+     * Journal line: a test with its logs and child nodes.
+     */
+    private static class Entry {
+        private String name;
+        private String description;
+        private long start;
+        private long end;
+        private List<String> categories = new ArrayList<>();
+        private List<LogEntry> logs = new ArrayList<>();
+        private List<Entry> children = new ArrayList<>();
+
+        /**
+         * @return true when the test and its child nodes only have pass, info or debug logs
+         */
+        boolean isPassed() {
+            for (LogEntry log : logs) {
+                Status status = Status.valueOf(log.status);
+                if (status != Status.PASS && status != Status.INFO && status != Status.DEBUG) {
+                    return false;
+                }
+            }
+            return children.stream().allMatch(Entry::isPassed);
+        }
+
+        int countLogs() {
+            return logs.size() + children.stream().mapToInt(Entry::countLogs).sum();
+        }
+    }
+
+    /**
+     * Log of a journal test.
+     */
+    private static class LogEntry {
+        private String status;
+        private String details;
+        private long timestamp;
+        private List<String> screenshots = new ArrayList<>();
+    }
+}
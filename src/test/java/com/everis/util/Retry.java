@@ -0,0 +1,183 @@
+package com.everis.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.aventstack.extentreports.ExtentTest;
+
+/**
+ * Retry runs a body again, in place, when it fails with a transient exception, instead of
+ * failing the scenario and rerunning it from target/rerun.txt. Only bodies that can run twice
+ * without changing the outcome should be retried: keep the actions that cannot be repeated out
+ * of the body.
+ * - The policy is built once with {@link #policy(int, long, Class...)} and given to each call.
+ * - The transient exceptions are the ones of the policy, or by default "retry.exceptions",
+ *   a comma-separated list of class names (default stale element, click intercepted and timeout).
+ * - Every failed attempt is logged as a warning in the report, with the wait before the next one.
+ * - With -Dretry.enabled=false the body runs once.
+ *
+ * Usage:
+ * <pre>
+ * private static final Retry.Policy ADD = Retry.policy(3, 500, StaleElementReferenceException.class);
+ *
+ * public void add(String name) {
+ *     Retry.run(ADD, "add " + name, () -&gt; ...);
+ * }
+ * </pre>
+ */
+public class Retry {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("retry.enabled", "true"));
+    private static final List<Class<?>> TRANSIENT = load(System.getProperty("retry.exceptions",
+            "org.openqa.selenium.StaleElementReferenceException,"
+            + "org.openqa.selenium.ElementClickInterceptedException,"
+            + "org.openqa.selenium.TimeoutException"));
+
+    private Retry() { }
+
+    /**
+     * Builds a retry policy, with a wait that doubles after each failed attempt.
+     *
+     * @param maxAttempts   maximum number of attempts, including the first one
+     * @param backoffMillis wait before the second attempt, in milliseconds
+     * @param retryOn       exceptions worth a new attempt, by default those of "retry.exceptions"
+     * @return the policy
+     */
+    @SafeVarargs
+    public static Policy policy(int maxAttempts, long backoffMillis, Class<? extends Throwable>... retryOn) {
+        return new Policy(maxAttempts, backoffMillis, 2,
+                retryOn.length > 0 ? Collections.<Class<?>>unmodifiableList(Arrays.<Class<?>>asList(retryOn)) : TRANSIENT);
+    }
+
+    /**
+     * Runs the body with a retry policy.
+     *
+     * @param policy retry policy, see {@link #policy(int, long, Class...)}
+     * @param action description of the body, for the report
+     * @param body   the retryable part of the calling method
+     */
+    public static void run(Policy policy, String action, Runnable body) {
+        get(policy, action, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the body with a retry policy and returns its result.
+     *
+     * @param policy retry policy, see {@link #policy(int, long, Class...)}
+     * @param action description of the body, for the report
+     * @param body   the retryable part of the calling method
+     * @return the result of the successful attempt
+     */
+    public static <T> T get(Policy policy, String action, Supplier<T> body) {
+        int maxAttempts = ENABLED ? Math.max(1, policy.maxAttempts) : 1;
+        long backoff = policy.backoffMillis;
+        for (int attempt = 1; ; attempt++) {
+            try (Timeline.Span span = Timeline.span("retry", action, "attempt " + attempt)) {
+                T result = body.get();
+                if (attempt > 1) {
+                    log(Status.INFO, action + " succeeded on attempt " + attempt + "/" + maxAttempts);
+                }
+                return result;
+            } catch (RuntimeException | AssertionError e) {
+                if (attempt >= maxAttempts || !isTransient(e, policy)) {
+                    throw e;
+                }
+                log(Status.WARNING, "Attempt " + attempt + "/" + maxAttempts + " of " + action + " failed with "
+                        + e.getClass().getSimpleName() + ": " + firstLine(e.getMessage())
+                        + ", retrying in " + backoff + " ms");
+                sleep(backoff);
+                backoff = (long) (backoff * policy.multiplier);
+            }
+        }
+    }
+
+    private static boolean isTransient(Throwable e, Policy policy) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            for (Class<?> type : policy.retryOn) {
+                if (type.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void log(Status status, String message) {
+        ExtentTest test = Hooks.getExtentTest();
+        if (test == null) {
+            return;
+        }
+        if (status == Status.WARNING) {
+            test.warning(message);
+        } else {
+            test.info(message);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int end = message.indexOf('\n');
+        return end < 0 ? message : message.substring(0, end);
+    }
+
+    private static List<Class<?>> load(String classNames) {
+        List<Class<?>> types = new ArrayList<>();
+        for (String name : classNames.split(",")) {
+            if (name.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                types.add(Class.forName(name.trim(), false, Retry.class.getClassLoader()));
+            } catch (ClassNotFoundException e) {
+                System.err.println("Unknown retry exception, ignored: " + name.trim());
+            }
+        }
+        return Collections.unmodifiableList(types);
+    }
+
+    private enum Status { INFO, WARNING }
+
+    /**
+     * How many times a body is attempted, how long to wait between attempts and which
+     * exceptions are worth a new attempt.
+     */
+    public static final class Policy {
+
+        private final int maxAttempts;
+        private final long backoffMillis;
+        private final double multiplier;
+        private final List<Class<?>> retryOn;
+
+        private Policy(int maxAttempts, long backoffMillis, double multiplier, List<Class<?>> retryOn) {
+            this.maxAttempts = maxAttempts;
+            this.backoffMillis = backoffMillis;
+            this.multiplier = multiplier;
+            this.retryOn = retryOn;
+        }
+
+        /**
+         * @param factor factor applied to the wait before each further attempt
+         * @return a copy of this policy with another factor
+         */
+        public Policy withMultiplier(double factor) {
+            return new Policy(maxAttempts, backoffMillis, factor, retryOn);
+        }
+    }
+}
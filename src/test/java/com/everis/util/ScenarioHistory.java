@@ -0,0 +1,211 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * ScenarioHistory keeps, per scenario ("&lt;feature uri&gt;:&lt;line&gt;"), its expected duration
+ * and whether it failed recently, in "scheduler.history.file" (default ".bdd-cache/scenario-history.tsv").
+ * - Durations come from the Cucumber JSON report, smoothed between runs (the last run weighs half).
+ * - Failures come from the rerun file; a scenario stays "recently failed" until it passes.
+ */
+public class ScenarioHistory {
+
+    public static final Path REPORT = Paths.get("target/cucumber.json");
+    public static final Path RERUN = Paths.get("target/rerun.txt");
+
+    private static final Path FILE = Paths.get(System.getProperty("scheduler.history.file", ".bdd-cache/scenario-history.tsv"));
+
+    private final Map<String, Entry> entries = new TreeMap<>();
+
+    private ScenarioHistory() { }
+
+    /**
+     * Reads the history file. When it does not exist yet, it is started from the reports
+     * of the last run, if any.
+     *
+     * @return the history
+     */
+    public static ScenarioHistory load() {
+        ScenarioHistory history = new ScenarioHistory();
+        if (!Files.exists(FILE)) {
+            history.merge(REPORT, RERUN);
+            return history;
+        }
+        try {
+            for (String line : Files.readAllLines(FILE, StandardCharsets.UTF_8)) {
+                String[] columns = line.split("\t");
+                if (columns.length == 3) {
+                    history.entries.put(columns[0], new Entry(Long.parseLong(columns[1]), Boolean.parseBoolean(columns[2])));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error reading scenario history, starting from scratch: " + e);
+            history.entries.clear();
+        }
+        return history;
+    }
+
+    /**
+     * Adds the results of a run.
+     *
+     * @param report Cucumber JSON report of the run
+     * @param rerun  rerun file of the run, with the failed scenarios
+     */
+    public void merge(Path report, Path rerun) {
+        if (!Files.exists(report)) {
+            return;
+        }
+        Map<String, Long> durations = readDurations(report);
+        List<String> failed = readRerun(rerun);
+        for (Map.Entry<String, Long> scenario : durations.entrySet()) {
+            Entry previous = entries.get(scenario.getKey());
+            long millis = previous == null ? scenario.getValue() : (previous.millis + scenario.getValue()) / 2;
+            entries.put(scenario.getKey(), new Entry(millis, failed.contains(scenario.getKey())));
+        }
+    }
+
+    /**
+     * Writes the history file.
+     */
+    public void save() {
+        List<String> lines = new ArrayList<>();
+        entries.forEach((key, entry) -> lines.add(key + "\t" + entry.millis + "\t" + entry.failed));
+        try {
+            if (FILE.getParent() != null) {
+                Files.createDirectories(FILE.getParent());
+            }
+            Files.write(FILE, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error saving scenario history: " + e);
+        }
+    }
+
+    /**
+     * @param key scenario key, "&lt;feature uri&gt;:&lt;line&gt;"
+     * @return expected duration in milliseconds, or -1 when the scenario never ran
+     */
+    public long durationOf(String key) {
+        Entry entry = entries.get(key);
+        return entry == null ? -1 : entry.millis;
+    }
+
+    /**
+     * @return mean expected duration of the known scenarios, 0 when there is none
+     */
+    public long meanDuration() {
+        return (long) entries.values().stream().mapToLong(entry -> entry.millis).average().orElse(0);
+    }
+
+    /**
+     * @param key scenario key, "&lt;feature uri&gt;:&lt;line&gt;"
+     * @return true when the scenario failed in its last run
+     */
+    public boolean failedRecently(String key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.failed;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Sums the durations of hooks and steps of each scenario of the report.
+     */
+    private static Map<String, Long> readDurations(Path report) {
+        Map<String, Long> durations = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(report, StandardCharsets.UTF_8)) {
+            JsonElement root = new JsonParser().parse(reader);
+            if (!root.isJsonArray()) {
+                return durations;
+            }
+            for (JsonElement feature : root.getAsJsonArray()) {
+                String uri = feature.getAsJsonObject().get("uri").getAsString();
+                JsonArray elements = feature.getAsJsonObject().getAsJsonArray("elements");
+                if (elements == null) {
+                    continue;
+                }
+                for (JsonElement element : elements) {
+                    JsonObject scenario = element.getAsJsonObject();
+                    if (!"scenario".equals(scenario.get("type").getAsString())) {
+                        continue;
+                    }
+                    long nanos = sum(scenario.getAsJsonArray("before")) + sum(scenario.getAsJsonArray("steps"))
+                            + sum(scenario.getAsJsonArray("after"));
+                    durations.put(uri + ":" + scenario.get("line").getAsInt(), TimeUnit.NANOSECONDS.toMillis(nanos));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Error reading durations from " + report + ": " + e);
+        }
+        return durations;
+    }
+
+    private static long sum(JsonArray steps) {
+        long nanos = 0;
+        if (steps != null) {
+            for (JsonElement step : steps) {
+                JsonObject result = step.getAsJsonObject().getAsJsonObject("result");
+                if (result != null && result.has("duration")) {
+                    nanos += result.get("duration").getAsLong();
+                }
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * Reads the keys of the scenarios of a rerun file, where each feature
+     * is written as "&lt;uri&gt;:&lt;line&gt;[:&lt;line&gt;...]".
+     */
+    private static List<String> readRerun(Path rerun) {
+        List<String> keys = new ArrayList<>();
+        if (!Files.exists(rerun)) {
+            return keys;
+        }
+        try {
+            for (String feature : new String(Files.readAllBytes(rerun), StandardCharsets.UTF_8).trim().split("\\s+")) {
+                int separator = feature.indexOf(".feature:");
+                if (separator < 0) {
+                    continue;
+                }
+                String uri = feature.substring(0, separator + ".feature".length());
+                for (String line : feature.substring(separator + ".feature:".length()).split(":")) {
+                    keys.add(uri + ":" + line);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading " + rerun + ": " + e);
+        }
+        return keys;
+    }
+
+    /**
+     * Expected duration and last result of a scenario.
+     */
+    private static class Entry {
+
+        private final long millis;
+        private final boolean failed;
+
+        private Entry(long millis, boolean failed) {
+            this.millis = millis;
+            this.failed = failed;
+        }
+    }
+}
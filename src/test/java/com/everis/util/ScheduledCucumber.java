@@ -0,0 +1,213 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.NoTestsRemainException;
+import org.junit.runner.manipulation.Sorter;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runners.ParentRunner;
+import org.junit.runners.model.InitializationError;
+import org.junit.runners.model.RunnerScheduler;
+
+import io.cucumber.junit.Cucumber;
+
+/**
+ * ScheduledCucumber runs the Cucumber runner with its features and scenarios ordered
+ * by the {@link ScenarioHistory}, longest first, so in parallel runs
+ * (features run in parallel) the long ones do not start last.
+ * - With -Dscheduler.failuresFirst=true, scenarios that failed in their last run start first.
+ * - Scenarios without history are expected to take the mean duration.
+ * - -Dscheduler=file keeps the order of the feature files.
+ *
+ * The history is updated with target/cucumber.json and target/rerun.txt after each run.
+ * When the suite is split with -Dshard.count, only the scenarios of the current shard
+ * run (see {@link Shards}) and the results are published for {@link ShardMerge}.
+ * When -Dcucumber.features points to an empty rerun file (e.g. an {@link ImpactSelector}
+ * selection without scenarios), nothing runs, instead of Cucumber's default features.
+ * The glue is read from the {@link StepIndex} generated by the build, instead of scanning the classpath.
+ */
+public class ScheduledCucumber extends ParentRunner<ParentRunner<?>> {
+
+    private static final boolean ENABLED = !"file".equals(System.getProperty("scheduler", "history"));
+    private static final boolean FAILURES_FIRST = Boolean.getBoolean("scheduler.failuresFirst");
+
+    private final Cucumber cucumber;
+
+    public ScheduledCucumber(Class<?> testClass) throws InitializationError {
+        super(testClass);
+        cucumber = newCucumber(testClass);
+        if (isEmptySelection(System.getProperty("cucumber.features", ""))) {
+            try {
+                cucumber.filter(Filter.matchMethodDescription(Description.EMPTY));
+            } catch (NoTestsRemainException e) {
+                System.out.println("No scenarios selected in " + System.getProperty("cucumber.features"));
+            }
+        }
+        ScenarioHistory history = ScenarioHistory.load();
+        if (Shards.isEnabled()) {
+            try {
+                cucumber.filter(Shards.filter(cucumber.getDescription(), history, ScheduledCucumber::scenarioKey));
+            } catch (NoTestsRemainException e) {
+                System.err.println("No scenarios in shard " + Shards.index() + " of " + Shards.count());
+            }
+        }
+        if (ENABLED && !history.isEmpty()) {
+            cucumber.sort(new Sorter(new HistoryOrder(history)));
+        }
+    }
+
+    @Override
+    public void run(RunNotifier notifier) {
+        try {
+            cucumber.run(notifier);
+        } finally {
+            ScenarioHistory history = ScenarioHistory.load();
+            history.merge(ScenarioHistory.REPORT, ScenarioHistory.RERUN);
+            history.save();
+            if (Shards.isEnabled()) {
+                Shards.publish();
+            }
+        }
+    }
+
+    @Override
+    public Description getDescription() {
+        return cucumber.getDescription();
+    }
+
+    @Override
+    public void filter(Filter filter) throws NoTestsRemainException {
+        cucumber.filter(filter);
+    }
+
+    @Override
+    public void sort(Sorter sorter) {
+        cucumber.sort(sorter);
+    }
+
+    @Override
+    public void setScheduler(RunnerScheduler scheduler) {
+        cucumber.setScheduler(scheduler);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected List<ParentRunner<?>> getChildren() {
+        try {
+            return (List<ParentRunner<?>>) MethodUtils.invokeMethod(cucumber, true, "getChildren");
+        } catch (ReflectiveOperationException e) {
+            return Collections.emptyList();
+        }
+    }
+
+    @Override
+    protected Description describeChild(ParentRunner<?> child) {
+        return child.getDescription();
+    }
+
+    @Override
+    protected void runChild(ParentRunner<?> child, RunNotifier notifier) {
+        child.run(notifier);
+    }
+
+    /**
+     * Creates the Cucumber runner with the glue packages of the {@link StepIndex},
+     * unless the glue is given with -Dcucumber.glue or there is no index.
+     */
+    private static Cucumber newCucumber(Class<?> testClass) throws InitializationError {
+        List<String> glue = StepIndex.gluePackages();
+        if (glue.isEmpty() || System.getProperty("cucumber.glue") != null) {
+            return new Cucumber(testClass);
+        }
+        System.setProperty("cucumber.glue", String.join(",", glue));
+        try {
+            return new Cucumber(testClass);
+        } finally {
+            System.clearProperty("cucumber.glue");
+        }
+    }
+
+    private static boolean isEmptySelection(String features) {
+        if (!features.startsWith("@")) {
+            return false;
+        }
+        try {
+            Path rerun = Paths.get(features.substring(1));
+            return Files.exists(rerun) && new String(Files.readAllBytes(rerun), StandardCharsets.UTF_8).trim().isEmpty();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads the feature URI and line of a scenario from the unique id Cucumber gives to its description.
+     *
+     * @param description scenario description
+     * @return the scenario key of the {@link ScenarioHistory}, or null when it is not a Cucumber scenario
+     */
+    static String scenarioKey(Description description) {
+        try {
+            Object uniqueId = FieldUtils.readField(description, "fUniqueId", true);
+            Object uri = FieldUtils.readField(uniqueId, "uri", true);
+            Object line = FieldUtils.readField(uniqueId, "pickleLine", true);
+            return uri + ":" + line;
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Orders features and scenarios by recent failure (optional) and then by expected duration,
+     * longest first. A feature lasts as long as its scenarios together.
+     */
+    private static class HistoryOrder implements Comparator<Description>, Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ScenarioHistory history;
+
+        private HistoryOrder(ScenarioHistory history) {
+            this.history = history;
+        }
+
+        @Override
+        public int compare(Description a, Description b) {
+            if (FAILURES_FIRST) {
+                int failures = Boolean.compare(failed(b), failed(a));
+                if (failures != 0) {
+                    return failures;
+                }
+            }
+            return Long.compare(duration(b), duration(a));
+        }
+
+        private boolean failed(Description description) {
+            if (description.isSuite()) {
+                return description.getChildren().stream().anyMatch(this::failed);
+            }
+            String key = scenarioKey(description);
+            return key != null && history.failedRecently(key);
+        }
+
+        private long duration(Description description) {
+            if (description.isSuite()) {
+                return description.getChildren().stream().mapToLong(this::duration).sum();
+            }
+            String key = scenarioKey(description);
+            long duration = key == null ? -1 : history.durationOf(key);
+            return duration >= 0 ? duration : history.meanDuration();
+        }
+    }
+}
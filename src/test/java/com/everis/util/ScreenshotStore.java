@@ -0,0 +1,143 @@
+package com.everis.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ScreenshotStore names the screenshots saved by {@link ScreenshotWriter}.
+ * - Screenshots are named by the SHA-256 of their content, so identical captures
+ *   are written once and referenced by every log that produced them.
+ *   Disabled with -Dscreenshot.dedup=false (timestamp names, one file per capture).
+ * - With -Dscreenshot.store.maxBytes the image directory is trimmed at the end of the run,
+ *   deleting the least recently used images that were not referenced by this run.
+ */
+public class ScreenshotStore {
+
+    private static final boolean DEDUP = Boolean.parseBoolean(System.getProperty("screenshot.dedup", "true"));
+    private static final long MAX_BYTES = Long.getLong("screenshot.store.maxBytes", 0L);
+
+    private static final Set<String> stored = ConcurrentHashMap.newKeySet();
+    private static final AtomicLong captures = new AtomicLong();
+    private static final AtomicLong bytesCaptured = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+
+    private ScreenshotStore() { }
+
+    /**
+     * Returns the file name for a screenshot: its content hash, or a timestamp when deduplication is disabled.
+     *
+     * @param png screenshot bytes
+     * @return file name relative to the image directory
+     */
+    public static String nameFor(byte[] png) {
+        if (DEDUP) {
+            return Utils.sha256Hex(png) + ".png";
+        }
+        String timestamp = LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("ddMMyyyy_HHmmssSSS"));
+        return timestamp + "_" + Thread.currentThread().getId() + ".png";
+    }
+
+    /**
+     * Registers a capture and tells whether its content still has to be written.
+     * An image already stored by this run, or by a previous one, is only marked as recently used.
+     *
+     * @param target file the screenshot is stored in
+     * @param size   size of the captured image in bytes
+     * @return true when the caller must write the file
+     */
+    public static boolean claim(Path target, long size) {
+        captures.incrementAndGet();
+        bytesCaptured.addAndGet(size);
+
+        boolean firstInRun = stored.add(target.getFileName().toString());
+        if (!DEDUP) {
+            return true;
+        }
+        if (firstInRun && !Files.exists(target)) {
+            return true;
+        }
+
+        bytesSaved.addAndGet(size);
+        if (firstInRun) {
+            touch(target);
+        }
+        return false;
+    }
+
+    /**
+     * Forgets a screenshot whose write failed, and deletes what was partially written,
+     * so the next identical capture writes it again instead of referencing a missing file.
+     *
+     * @param target file passed to {@link #claim(Path, long)}
+     */
+    public static void failed(Path target) {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            System.err.println("Error deleting screenshot " + target + ": " + e);
+        }
+        stored.remove(target.getFileName().toString());
+    }
+
+    /**
+     * @return file names of the screenshots written or referenced by this run
+     */
+    public static Set<String> referenced() {
+        return Collections.unmodifiableSet(new HashSet<>(stored));
+    }
+
+    /**
+     * Deletes the least recently used images not referenced by this run
+     * until the image directory fits in "screenshot.store.maxBytes".
+     */
+    public static void enforceRetention() {
+        File[] files = new File(ScreenshotWriter.DIRECTORY).listFiles(File::isFile);
+        if (MAX_BYTES <= 0 || files == null) {
+            return;
+        }
+
+        long total = Arrays.stream(files).mapToLong(File::length).sum();
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for (File file : files) {
+            if (total <= MAX_BYTES) {
+                break;
+            }
+            if (stored.contains(file.getName())) {
+                continue;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+            }
+        }
+    }
+
+    /**
+     * @return human readable summary of the captures and of the bytes saved by deduplication
+     */
+    public static String summary() {
+        return String.format("%d captures, %d distinct images, %d KB captured, %d KB saved by deduplication",
+                captures.get(), stored.size(), bytesCaptured.get() / 1024, bytesSaved.get() / 1024);
+    }
+
+    private static void touch(Path target) {
+        try {
+            Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            System.err.println("Error touching screenshot " + target + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.everis.util;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+/**
+ * ScreenshotWriter saves the screenshots referenced by the report into "target/report/html/img".
+ * - File names and deduplication are handled by {@link ScreenshotStore}.
+ * - By default the image is written on the calling thread.
+ * - With -Dscreenshot.async=true the image is handed to background writers
+ *   ("screenshot.writers", default 2) through a bounded queue ("screenshot.queue.size", default 32).
+ *   When the queue is full the caller waits, so memory stays bounded.
+ * - With -Dscreenshot.scale (e.g. 0.5) images are downscaled before being written.
+ *
+ * {@link #awaitCompletion()} must be called before the report is flushed.
+ */
+public class ScreenshotWriter {
+
+    public static final String DIRECTORY = "target/report/html/img/";
+
+    private static final boolean ASYNC = Boolean.getBoolean("screenshot.async");
+    private static final int WRITERS = Integer.getInteger("screenshot.writers", 2);
+    private static final int QUEUE_SIZE = Integer.getInteger("screenshot.queue.size", 32);
+    private static final double SCALE = Double.parseDouble(System.getProperty("screenshot.scale", "1"));
+
+    private static final Object lock = new Object();
+    private static int pending;
+
+    private static final ThreadPoolExecutor writers = new ThreadPoolExecutor(
+            WRITERS, WRITERS, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(QUEUE_SIZE),
+            runnable -> {
+                Thread thread = new Thread(runnable, "screenshot-writer");
+                thread.setDaemon(true);
+                return thread;
+            },
+            (runnable, executor) -> {
+                try {
+                    executor.getQueue().put(runnable);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            });
+
+    private ScreenshotWriter() { }
+
+    /**
+     * Saves a PNG screenshot in the report image directory.
+     *
+     * @param png screenshot bytes as returned by the driver
+     * @return file name of the screenshot, relative to the image directory
+     */
+    public static String save(byte[] png) {
+        String screenshotName = ScreenshotStore.nameFor(png);
+        Path target = Paths.get(DIRECTORY, screenshotName);
+
+        if (!ScreenshotStore.claim(target, png.length)) {
+            return screenshotName;
+        }
+        if (!ASYNC) {
+            write(target, png);
+            return screenshotName;
+        }
+
+        synchronized (lock) {
+            pending++;
+        }
+        try {
+            writers.execute(() -> {
+                try {
+                    write(target, png);
+                } finally {
+                    done();
+                }
+            });
+        } catch (RuntimeException e) {
+            done();
+            throw e;
+        }
+        return screenshotName;
+    }
+
+    /**
+     * Blocks until every screenshot submitted so far has been written.
+     */
+    public static void awaitCompletion() {
+        synchronized (lock) {
+            while (pending > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+    }
+
+    private static void done() {
+        synchronized (lock) {
+            pending--;
+            lock.notifyAll();
+        }
+    }
+
+    private static void write(Path target, byte[] png) {
+        try {
+            Files.createDirectories(target.getParent());
+            Files.write(target, SCALE < 1 ? scale(png) : png);
+        } catch (IOException e) {
+            ScreenshotStore.failed(target);
+            if (!ASYNC) {
+                throw new RuntimeException(e);
+            }
+            System.err.println("Error saving screenshot " + target + ": " + e);
+        }
+    }
+
+    private static byte[] scale(byte[] png) throws IOException {
+        BufferedImage source = ImageIO.read(new ByteArrayInputStream(png));
+        if (source == null) {
+            return png;
+        }
+
+        int width = Math.max(1, (int) (source.getWidth() * SCALE));
+        int height = Math.max(1, (int) (source.getHeight() * SCALE));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.drawImage(source, 0, 0, width, height, null);
+        graphics.dispose();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(scaled, "png", out);
+        return out.toByteArray();
+    }
+}
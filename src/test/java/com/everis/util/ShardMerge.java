@@ -0,0 +1,208 @@
+package com.everis.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * ShardMerge combines the results published by the shards of a run (see {@link Shards})
+ * into a single set of reports:
+ * - "cucumber.json": the features of every shard, copied one at a time;
+ * - "rerun.txt": the failed scenarios of every shard;
+ * - "report/html/merged.html": the Extent report rendered from the journals of every shard,
+ *   with their screenshots in "report/html/img". The journals are read line by line, but the
+ *   rendered report is held in memory until it is written (see {@link ReportJournal}).
+ *
+ * Usage: ShardMerge &lt;output dir&gt; &lt;shard dir or directory of shard dirs&gt;...
+ * (see the "merge-shards" Maven profile).
+ */
+public class ShardMerge {
+
+    static final String REPORT = "cucumber.json";
+    static final String RERUN = "rerun.txt";
+    static final String JOURNAL = "journal.jsonl";
+    static final String IMAGES = "img";
+
+    private static final Pattern RERUN_ENTRY = Pattern.compile("(.+?)((?::\\d+)+)");
+    private static final Gson gson = new Gson();
+
+    private ShardMerge() { }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ShardMerge <output dir> <shard dir>...");
+            System.exit(2);
+        }
+        List<Path> shards = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            shards.addAll(shardsIn(Paths.get(args[i])));
+        }
+        if (shards.isEmpty()) {
+            System.err.println("No shard results found");
+            System.exit(1);
+        }
+        merge(Paths.get(args[0]), shards);
+    }
+
+    /**
+     * Merges the results of the given shards in the output directory.
+     *
+     * @param output output directory
+     * @param shards directories published by the shards
+     */
+    public static void merge(Path output, List<Path> shards) throws IOException {
+        Path html = Files.createDirectories(output.resolve("report/html"));
+
+        int features = mergeReports(output.resolve(REPORT), files(shards, REPORT));
+        int failed = mergeReruns(output.resolve(RERUN), files(shards, RERUN));
+        for (Path shard : shards) {
+            copyImages(shard.resolve(IMAGES), Files.createDirectories(html.resolve(IMAGES)));
+        }
+
+        Map<String, String> systemInfo = new LinkedHashMap<>();
+        systemInfo.put("os.name", System.getProperty("os.name"));
+        systemInfo.put("shards", String.valueOf(shards.size()));
+        ReportJournal.render(html.resolve("merged.html").toString(), systemInfo, files(shards, JOURNAL));
+
+        System.out.println("Merged " + shards.size() + " shards: " + features + " features, "
+                + failed + " failed scenarios, report in " + html.resolve("merged.html"));
+    }
+
+    /**
+     * Copies the features of each Cucumber JSON report to a single array, one feature at a time.
+     * A feature split between shards appears once per shard, with its own scenarios.
+     *
+     * @return number of features written
+     */
+    static int mergeReports(Path target, List<Path> reports) throws IOException {
+        JsonParser parser = new JsonParser();
+        int features = 0;
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(target, StandardCharsets.UTF_8))) {
+            writer.setIndent("  ");
+            writer.beginArray();
+            for (Path report : reports) {
+                try (JsonReader reader = new JsonReader(Files.newBufferedReader(report, StandardCharsets.UTF_8))) {
+                    if (reader.peek() == JsonToken.END_DOCUMENT) {
+                        continue;
+                    }
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        gson.toJson(parser.parse(reader), writer);
+                        features++;
+                    }
+                    reader.endArray();
+                } catch (IOException | RuntimeException e) {
+                    System.err.println("Error reading report " + report + ", skipping the rest of it: " + e);
+                }
+            }
+            writer.endArray();
+        }
+        return features;
+    }
+
+    /**
+     * Writes the failed scenarios of every rerun file, one feature per line ("uri:line:line"),
+     * without duplicated lines.
+     *
+     * @return number of failed scenarios
+     */
+    static int mergeReruns(Path target, List<Path> reruns) throws IOException {
+        Map<String, Set<String>> features = new LinkedHashMap<>();
+        for (Path rerun : reruns) {
+            try (BufferedReader reader = Files.newBufferedReader(rerun, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    for (String entry : line.trim().split("\\s+")) {
+                        Matcher matcher = RERUN_ENTRY.matcher(entry);
+                        if (matcher.matches()) {
+                            Set<String> lines = features.computeIfAbsent(matcher.group(1), uri -> new LinkedHashSet<>());
+                            lines.addAll(Arrays.asList(matcher.group(2).substring(1).split(":")));
+                        }
+                    }
+                }
+            }
+        }
+        int scenarios = 0;
+        try (Writer writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Set<String>> feature : features.entrySet()) {
+                writer.write(feature.getKey() + ":" + String.join(":", feature.getValue()));
+                writer.write(System.lineSeparator());
+                scenarios += feature.getValue().size();
+            }
+        }
+        return scenarios;
+    }
+
+    private static void copyImages(Path source, Path target) throws IOException {
+        if (!Files.isDirectory(source)) {
+            return;
+        }
+        try (Stream<Path> images = Files.list(source)) {
+            for (Path image : (Iterable<Path>) images::iterator) {
+                // Screenshot names are unique per image (content hash or timestamp and thread)
+                Path copy = target.resolve(image.getFileName());
+                if (!Files.exists(copy)) {
+                    Files.copy(image, copy, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    private static List<Path> files(List<Path> shards, String name) {
+        return shards.stream()
+                .map(shard -> shard.resolve(name))
+                .filter(Files::isRegularFile)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * A shard directory holds at least one of the published files;
+     * otherwise its subdirectories are the shard directories, in index order.
+     */
+    private static List<Path> shardsIn(Path directory) throws IOException {
+        List<Path> shards = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return shards;
+        }
+        if (isShard(directory)) {
+            shards.add(directory);
+            return shards;
+        }
+        try (Stream<Path> children = Files.list(directory)) {
+            children.filter(ShardMerge::isShard)
+                    .sorted(Comparator.comparing((Path shard) -> shard.getFileName().toString().length())
+                            .thenComparing(Path::toString))
+                    .forEach(shards::add);
+        }
+        return shards;
+    }
+
+    private static boolean isShard(Path directory) {
+        return Files.isRegularFile(directory.resolve(REPORT))
+                || Files.isRegularFile(directory.resolve(RERUN))
+                || Files.isRegularFile(directory.resolve(JOURNAL));
+    }
+}
@@ -0,0 +1,186 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Filter;
+
+/**
+ * Shards splits the scenarios of the suite between runs on several JVMs or agents,
+ * with -Dshard.index=&lt;0..count-1&gt; and -Dshard.count=&lt;count&gt;. Each scenario runs in exactly one shard:
+ * - "shard.strategy=hash" (default): by the SHA-256 of the feature path, relative to the project,
+ *   and line of the scenario, so every agent computes the same split whatever its checkout directory;
+ * - "shard.strategy=weight": by expected duration from the {@link ScenarioHistory}, longest first
+ *   to the least loaded shard. Every shard must see the same history file.
+ *
+ * At the end of the run the results of the shard are copied to "target/shards/&lt;index&gt;",
+ * to be combined by {@link ShardMerge}.
+ */
+public class Shards {
+
+    public static final Path DIRECTORY = Paths.get("target/shards");
+
+    private static final int INDEX = Integer.getInteger("shard.index", 0);
+    private static final int COUNT = Integer.getInteger("shard.count", 1);
+    private static final String STRATEGY = System.getProperty("shard.strategy", "hash");
+
+    private Shards() { }
+
+    /**
+     * @return true when the suite is split in more than one shard
+     */
+    public static boolean isEnabled() {
+        return COUNT > 1;
+    }
+
+    public static int index() {
+        return INDEX;
+    }
+
+    public static int count() {
+        return COUNT;
+    }
+
+    /**
+     * Builds the filter that keeps the scenarios of this shard.
+     *
+     * @param suite   description of the whole suite
+     * @param history scenario history, used by the "weight" strategy
+     * @param key     scenario key ("&lt;feature uri&gt;:&lt;line&gt;") of a scenario description
+     * @return the filter of the current shard
+     */
+    public static Filter filter(Description suite, ScenarioHistory history, Function<Description, String> key) {
+        if (INDEX < 0 || INDEX >= COUNT) {
+            throw new IllegalArgumentException("shard.index must be between 0 and " + (COUNT - 1) + ": " + INDEX);
+        }
+        Set<String> keys = "weight".equals(STRATEGY) ? byWeight(suite, history, key) : null;
+        return new Filter() {
+            @Override
+            public boolean shouldRun(Description description) {
+                if (description.isSuite()) {
+                    return description.getChildren().stream().anyMatch(this::shouldRun);
+                }
+                String scenario = key.apply(description);
+                if (scenario == null) {
+                    scenario = description.getDisplayName();
+                }
+                return keys != null ? keys.contains(scenario) : Math.floorMod(stableHash(scenario), COUNT) == INDEX;
+            }
+
+            @Override
+            public String describe() {
+                return "shard " + INDEX + " of " + COUNT + " (" + STRATEGY + ")";
+            }
+        };
+    }
+
+    /**
+     * Hashes a scenario key by the feature path relative to the project, the same on every agent,
+     * instead of its URI, which may be absolute.
+     */
+    static long stableHash(String scenario) {
+        String stable = scenario;
+        int separator = scenario.lastIndexOf(':');
+        if (separator > 0) {
+            try {
+                String source = ImpactIndex.sourceOf(new URI(scenario.substring(0, separator)));
+                if (source != null) {
+                    stable = source + scenario.substring(separator);
+                }
+            } catch (URISyntaxException e) {
+                // Not a feature URI (e.g. a display name): hashed as is
+            }
+        }
+        return Long.parseLong(Utils.sha256Hex(stable.getBytes(StandardCharsets.UTF_8)).substring(0, 15), 16);
+    }
+
+    /**
+     * Copies the Cucumber JSON report, the rerun file, the report journal and the screenshots
+     * referenced by this run to "target/shards/&lt;index&gt;".
+     */
+    public static void publish() {
+        Path target = DIRECTORY.resolve(String.valueOf(INDEX));
+        try {
+            Files.createDirectories(target);
+            copy(ScenarioHistory.REPORT, target.resolve(ShardMerge.REPORT));
+            copy(ScenarioHistory.RERUN, target.resolve(ShardMerge.RERUN));
+            copy(ReportJournal.DEFAULT_PATH, target.resolve(ShardMerge.JOURNAL));
+
+            // The image directory keeps the screenshots of previous runs, only this run's are published
+            Path images = Paths.get(ScreenshotWriter.DIRECTORY);
+            Path targetImages = Files.createDirectories(target.resolve(ShardMerge.IMAGES));
+            try (Stream<Path> previous = Files.list(targetImages)) {
+                for (Path file : (Iterable<Path>) previous::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            for (String image : ScreenshotStore.referenced()) {
+                copy(images.resolve(image), targetImages.resolve(image));
+            }
+        } catch (IOException e) {
+            System.err.println("Error publishing the results of shard " + INDEX + ": " + e);
+        }
+    }
+
+    private static void copy(Path source, Path target) throws IOException {
+        if (Files.isRegularFile(source)) {
+            Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Assigns the scenarios, longest first, to the least loaded shard,
+     * and returns the ones assigned to the current shard.
+     */
+    private static Set<String> byWeight(Description suite, ScenarioHistory history, Function<Description, String> key) {
+        List<String> scenarios = new ArrayList<>();
+        collect(suite, key, scenarios);
+        long mean = history.meanDuration();
+        scenarios.sort(Comparator.<String>comparingLong(scenario -> {
+            long duration = history.durationOf(scenario);
+            return duration >= 0 ? duration : mean;
+        }).reversed().thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[COUNT];
+        Set<String> assigned = new HashSet<>();
+        for (String scenario : scenarios) {
+            int shard = 0;
+            for (int i = 1; i < COUNT; i++) {
+                if (load[i] < load[shard]) {
+                    shard = i;
+                }
+            }
+            long duration = history.durationOf(scenario);
+            load[shard] += Math.max(1, duration >= 0 ? duration : mean);
+            if (shard == INDEX) {
+                assigned.add(scenario);
+            }
+        }
+        return assigned;
+    }
+
+    private static void collect(Description description, Function<Description, String> key, List<String> scenarios) {
+        if (description.isSuite()) {
+            for (Description child : description.getChildren()) {
+                collect(child, key, scenarios);
+            }
+            return;
+        }
+        String scenario = key.apply(description);
+        scenarios.add(scenario != null ? scenario : description.getDisplayName());
+    }
+}
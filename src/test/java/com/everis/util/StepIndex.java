@@ -0,0 +1,245 @@
+package com.everis.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.gherkin.Pickle;
+import io.cucumber.core.gherkin.Step;
+import io.cucumber.core.gherkin.messages.GherkinMessagesFeatureParser;
+import io.cucumber.cucumberexpressions.Expression;
+import io.cucumber.cucumberexpressions.ExpressionFactory;
+import io.cucumber.cucumberexpressions.ParameterTypeRegistry;
+import io.cucumber.java.StepDefinitionAnnotation;
+
+/**
+ * StepIndex lists the glue of the project (step definitions with their expressions, and hooks),
+ * generated by the build in "process-test-classes" from the compiled test classes, in the
+ * classpath resource "cucumber/step-index.tsv".
+ * - The build fails when a step of the features is undefined or matches more than one
+ *   step definition (-Dsteps.validate=false skips the validation).
+ * - {@link ScheduledCucumber} gives Cucumber the packages of the index as glue,
+ *   instead of scanning the whole classpath.
+ *
+ * Usage: StepIndex [&lt;test classes dir&gt; [&lt;features dir&gt;]], by default target/test-classes
+ * and its "features" directory.
+ */
+public class StepIndex {
+
+    public static final String RESOURCE = "cucumber/step-index.tsv";
+
+    private static final boolean VALIDATE = Boolean.parseBoolean(System.getProperty("steps.validate", "true"));
+    private static final String GLUE_PACKAGE = "io.cucumber.java.";
+
+    private StepIndex() { }
+
+    public static void main(String[] args) throws IOException {
+        Path classes = Paths.get(args.length > 0 ? args[0] : "target/test-classes");
+        Path features = args.length > 1 ? Paths.get(args[1]) : classes.resolve("features");
+
+        long start = System.nanoTime();
+        List<Entry> entries = scan(classes);
+        Path index = classes.resolve(RESOURCE);
+        Files.createDirectories(index.getParent());
+        Files.write(index, entries.stream().map(Entry::toString).collect(Collectors.toList()), StandardCharsets.UTF_8);
+
+        List<String> errors = VALIDATE ? validate(entries, features) : Collections.<String>emptyList();
+        System.out.println("Step index: " + entries.size() + " glue methods in " + packagesOf(entries) + ", "
+                + (VALIDATE ? errors.size() + " step errors" : "not validated") + " ("
+                + (System.nanoTime() - start) / 1000000 + " ms)");
+        if (!errors.isEmpty()) {
+            errors.forEach(System.err::println);
+            throw new IllegalStateException(errors.size() + " undefined or ambiguous steps, see the build log");
+        }
+    }
+
+    /**
+     * Reads the glue packages of the index on the classpath.
+     *
+     * @return the packages, empty when there is no index (e.g. classes compiled outside Maven)
+     */
+    public static List<String> gluePackages() {
+        InputStream in = StepIndex.class.getClassLoader().getResourceAsStream(RESOURCE);
+        if (in == null) {
+            return Collections.emptyList();
+        }
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split("\t", 3);
+                if (columns.length == 3) {
+                    entries.add(new Entry(columns[0], columns[1], columns[2]));
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error reading step index, scanning the glue: " + e);
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(packagesOf(entries));
+    }
+
+    /**
+     * Finds the methods with Cucumber step or hook annotations in the compiled classes.
+     */
+    private static List<Entry> scan(Path classes) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(classes)) {
+            files = walk.filter(file -> file.toString().endsWith(".class")).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = classes.relativize(file).toString().replace('\\', '/').replace('/', '.');
+            Class<?> type;
+            try {
+                type = Class.forName(name.substring(0, name.length() - ".class".length()), false,
+                        StepIndex.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                continue;
+            }
+            Method[] methods;
+            try {
+                methods = type.getDeclaredMethods();
+            } catch (LinkageError e) {
+                continue;
+            }
+            for (Method method : methods) {
+                for (Annotation annotation : method.getAnnotations()) {
+                    Entry entry = toEntry(type, method, annotation);
+                    if (entry != null) {
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        entries.sort((a, b) -> a.toString().compareTo(b.toString()));
+        return entries;
+    }
+
+    private static Entry toEntry(Class<?> type, Method method, Annotation annotation) {
+        Class<? extends Annotation> annotationType = annotation.annotationType();
+        String location = type.getName() + "." + method.getName();
+        if (annotationType.isAnnotationPresent(StepDefinitionAnnotation.class)) {
+            try {
+                String expression = (String) annotationType.getMethod("value").invoke(annotation);
+                return new Entry(location, annotationType.getSimpleName(), expression);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Unreadable step annotation on " + location, e);
+            }
+        }
+        if (annotationType.getName().startsWith(GLUE_PACKAGE)) {
+            return new Entry(location, "@" + annotationType.getSimpleName(), "");
+        }
+        return null;
+    }
+
+    /**
+     * Matches every step of the features against the step definitions of the index.
+     *
+     * @return one message per undefined or ambiguous step
+     */
+    private static List<String> validate(List<Entry> entries, Path features) throws IOException {
+        ExpressionFactory factory = new ExpressionFactory(new ParameterTypeRegistry(Locale.ENGLISH));
+        List<Entry> steps = new ArrayList<>();
+        List<Expression> expressions = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.isStep()) {
+                continue;
+            }
+            try {
+                expressions.add(factory.createExpression(entry.expression));
+                steps.add(entry);
+            } catch (RuntimeException e) {
+                // e.g. custom parameter types, only known when Cucumber runs
+                System.err.println("Step not validated, " + entry.location + ": " + e.getMessage());
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        if (!Files.isDirectory(features)) {
+            return errors;
+        }
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(features)) {
+            files = walk.filter(file -> file.toString().endsWith(".feature")).sorted().collect(Collectors.toList());
+        }
+        GherkinMessagesFeatureParser parser = new GherkinMessagesFeatureParser();
+        Path project = Paths.get("").toAbsolutePath();
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Feature feature = parser.parse(file.toUri(), source, UUID::randomUUID).orElse(null);
+            if (feature == null) {
+                continue;
+            }
+            Path shown = file.toAbsolutePath().startsWith(project) ? project.relativize(file.toAbsolutePath()) : file;
+            Set<String> reported = new TreeSet<>();
+            for (Pickle pickle : feature.getPickles()) {
+                for (Step step : pickle.getSteps()) {
+                    List<String> matches = new ArrayList<>();
+                    for (int i = 0; i < expressions.size(); i++) {
+                        if (expressions.get(i).match(step.getText()) != null) {
+                            matches.add(steps.get(i).location);
+                        }
+                    }
+                    String where = shown + ":" + step.getLine() + " " + step.getKeyword().trim() + " " + step.getText();
+                    if (matches.isEmpty() && reported.add(where)) {
+                        errors.add("Undefined step: " + where);
+                    } else if (matches.size() > 1 && reported.add(where)) {
+                        errors.add("Ambiguous step: " + where + " matches " + matches);
+                    }
+                }
+            }
+        }
+        return errors;
+    }
+
+    private static Set<String> packagesOf(List<Entry> entries) {
+        return entries.stream()
+                .map(entry -> entry.location.substring(0, entry.location.lastIndexOf('.')))
+                .map(type -> type.contains(".") ? type.substring(0, type.lastIndexOf('.')) : "")
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Glue method of the index: "&lt;class&gt;.&lt;method&gt;", annotation (e.g. "Dado", or "@Before"
+     * for hooks and other glue) and expression (empty for hooks).
+     */
+    private static class Entry {
+
+        private final String location;
+        private final String annotation;
+        private final String expression;
+
+        private Entry(String location, String annotation, String expression) {
+            this.location = location;
+            this.annotation = annotation;
+            this.expression = expression;
+        }
+
+        boolean isStep() {
+            return !annotation.startsWith("@");
+        }
+
+        @Override
+        public String toString() {
+            return location + "\t" + annotation + "\t" + expression;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.everis.util;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * TestData feeds the rows of the {@link DataSet}s to the steps, on demand.
+ * - Each dataset has one cursor per JVM, shared by the scenarios running in parallel,
+ *   so every row of the worker is taken by a single scenario.
+ * - The row taken by a scenario is bound to its thread and its columns are used
+ *   in step parameters as "${column}" (see {@link #resolve(String)}).
+ */
+public class TestData {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static final Map<String, DataSet.Rows> cursors = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Map<String, String>> row = new ThreadLocal<>();
+
+    private TestData() { }
+
+    /**
+     * Takes the next row of a dataset and binds it to the current scenario.
+     *
+     * @param dataset dataset name (see {@link DataSet#open(String)})
+     * @return the row, or null when the rows of this worker are exhausted
+     */
+    public static Map<String, String> next(String dataset) {
+        DataSet.Rows cursor = cursors.computeIfAbsent(dataset, name -> DataSet.open(name).iterator());
+        ImpactIndex.touched(cursor.getSource());
+        Map<String, String> next;
+        synchronized (cursor) {
+            next = cursor.hasNext() ? cursor.next() : null;
+        }
+        if (next != null) {
+            row.set(next);
+        }
+        return next;
+    }
+
+    /**
+     * @return the row bound to the current scenario, empty when there is none
+     */
+    public static Map<String, String> current() {
+        Map<String, String> current = row.get();
+        return current != null ? current : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Replaces the "${column}" placeholders of a step parameter with the columns of the current row.
+     *
+     * @param value step parameter
+     * @return the parameter with its placeholders replaced
+     * @throws IllegalStateException when a placeholder has no column in the current row
+     */
+    public static String resolve(String value) {
+        if (value == null || value.indexOf("${") < 0) {
+            return value;
+        }
+        Matcher matcher = PLACEHOLDER.matcher(value);
+        StringBuffer resolved = new StringBuffer();
+        while (matcher.find()) {
+            String column = current().get(matcher.group(1));
+            if (column == null) {
+                throw new IllegalStateException("No column [" + matcher.group(1) + "] in the current dataset row: "
+                        + current().keySet());
+            }
+            matcher.appendReplacement(resolved, Matcher.quoteReplacement(column));
+        }
+        matcher.appendTail(resolved);
+        return resolved.toString();
+    }
+
+    /**
+     * Unbinds the row of the current scenario.
+     */
+    public static void clear() {
+        row.remove();
+    }
+
+    /**
+     * Closes the cursors of the datasets read during the run.
+     */
+    public static void close() {
+        cursors.values().forEach(DataSet.Rows::close);
+        cursors.clear();
+    }
+}
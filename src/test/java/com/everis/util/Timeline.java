@@ -0,0 +1,127 @@
+package com.everis.util;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Timeline records how long the framework spends in each operation (waits, screenshots,
+ * report logging), per thread, while the {@link TimelinePlugin} is registered in the runner.
+ * When it is not, {@link #span(String, String, Object)} costs nothing. Events are not kept:
+ * each one is handed to the sink given to {@link #start(Consumer)} as soon as it finishes.
+ *
+ * Usage:
+ * <pre>
+ * try (Timeline.Span span = Timeline.span("wait", "waitElement", by)) {
+ *     ...
+ * }
+ * </pre>
+ */
+public class Timeline {
+
+    private static final long BASE_MICROS = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private static final long BASE_NANOS = System.nanoTime();
+    private static final Span NO_OP = new Span(null, null, null);
+
+    private static volatile Consumer<Event> sink;
+
+    private Timeline() { }
+
+    /**
+     * Starts measuring an operation, until the returned span is closed.
+     *
+     * @param category operation category (e.g. "wait", "screenshot", "report")
+     * @param name     operation name (e.g. "waitElement")
+     * @param detail   detail shown in the timeline (e.g. the locator), may be null
+     * @return the span to close when the operation ends
+     */
+    public static Span span(String category, String name, Object detail) {
+        if (sink == null) {
+            return NO_OP;
+        }
+        return new Span(category, name, detail == null ? null : String.valueOf(detail));
+    }
+
+    /**
+     * Starts recording.
+     *
+     * @param consumer receives each finished event, from the thread that measured it
+     */
+    static void start(Consumer<Event> consumer) {
+        sink = consumer;
+    }
+
+    /**
+     * Stops recording. Spans still open are discarded when they close.
+     */
+    static void stop() {
+        sink = null;
+    }
+
+    static void record(String category, String name, String detail, long startMicros, long durationMicros) {
+        Consumer<Event> consumer = sink;
+        if (consumer != null) {
+            Thread thread = Thread.currentThread();
+            consumer.accept(new Event(category, name, detail, startMicros, durationMicros, thread.getId(),
+                    thread.getName()));
+        }
+    }
+
+    static long micros(Instant instant) {
+        return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(instant.getNano());
+    }
+
+    private static long nowMicros() {
+        return BASE_MICROS + TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - BASE_NANOS);
+    }
+
+    /**
+     * Operation being measured.
+     */
+    public static final class Span implements AutoCloseable {
+
+        private final String category;
+        private final String name;
+        private final String detail;
+        private final long startMicros;
+
+        private Span(String category, String name, String detail) {
+            this.category = category;
+            this.name = name;
+            this.detail = detail;
+            this.startMicros = category == null ? 0 : nowMicros();
+        }
+
+        @Override
+        public void close() {
+            if (category != null) {
+                record(category, name, detail, startMicros, nowMicros() - startMicros);
+            }
+        }
+    }
+
+    /**
+     * Finished operation, with times in microseconds since the epoch.
+     */
+    static final class Event {
+
+        final String category;
+        final String name;
+        final String detail;
+        final long startMicros;
+        final long durationMicros;
+        final long threadId;
+        final String threadName;
+
+        Event(String category, String name, String detail, long startMicros, long durationMicros,
+              long threadId, String threadName) {
+            this.category = category;
+            this.name = name;
+            this.detail = detail;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
+            this.threadId = threadId;
+            this.threadName = threadName;
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.everis.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.stream.JsonWriter;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.HookTestStep;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestRunStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+
+/**
+ * TimelinePlugin records the time of each scenario, hook and step, plus the {@link Timeline}
+ * spans of the framework (waits, screenshots, report logging), and writes:
+ * - a timeline in Chrome trace format, to open in chrome://tracing or https://ui.perfetto.dev,
+ *   streamed while the run goes on, so the events are not kept in memory;
+ * - at the end of the run, a summary in Prometheus text format, with the same name and the
+ *   extension ".prom", with duration histograms per step pattern, hook, feature and framework
+ *   operation. Only the histogram buckets are kept in memory, and the number of series does
+ *   not grow with the number of scenarios.
+ *
+ * Registered in the runner with "com.everis.util.TimelinePlugin:target/timeline.json".
+ */
+public class TimelinePlugin implements ConcurrentEventListener {
+
+    private static final double[] BUCKETS = { 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60 };
+
+    private final Path tracePath;
+    private final Path metricsPath;
+    private final Map<String, Map<String, Histogram>> metrics = new TreeMap<>();
+    private final Map<Long, String> threads = new HashMap<>();
+    private JsonWriter trace;
+
+    public TimelinePlugin(File trace) {
+        this.tracePath = trace.toPath();
+        String name = trace.getName().replaceAll("\\.json$", "");
+        this.metricsPath = tracePath.resolveSibling(name + ".prom");
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestRunStarted.class, event -> runStarted());
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+        publisher.registerHandlerFor(TestCaseFinished.class, this::scenarioFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> runFinished());
+    }
+
+    private synchronized void runStarted() {
+        try {
+            if (tracePath.getParent() != null) {
+                Files.createDirectories(tracePath.getParent());
+            }
+            trace = new JsonWriter(Files.newBufferedWriter(tracePath, StandardCharsets.UTF_8));
+            trace.beginObject().name("displayTimeUnit").value("ms").name("traceEvents").beginArray();
+        } catch (IOException e) {
+            System.err.println("Error writing timeline: " + e);
+            trace = null;
+        }
+        Timeline.start(this::accept);
+    }
+
+    private synchronized void runFinished() {
+        Timeline.stop();
+        if (trace != null) {
+            try {
+                for (Map.Entry<Long, String> thread : threads.entrySet()) {
+                    trace.beginObject()
+                            .name("name").value("thread_name")
+                            .name("ph").value("M")
+                            .name("pid").value(1)
+                            .name("tid").value(thread.getKey())
+                            .name("args").beginObject().name("name").value(thread.getValue()).endObject()
+                            .endObject();
+                }
+                trace.endArray().endObject();
+                trace.close();
+            } catch (IOException e) {
+                System.err.println("Error writing timeline: " + e);
+            }
+            trace = null;
+        }
+        try {
+            writeMetrics();
+        } catch (IOException e) {
+            System.err.println("Error writing timeline metrics: " + e);
+        }
+    }
+
+    /**
+     * Writes the event to the trace and adds it to its histogram.
+     */
+    private synchronized void accept(Timeline.Event event) {
+        threads.putIfAbsent(event.threadId, event.threadName);
+        observe(event);
+        if (trace == null) {
+            return;
+        }
+        try {
+            trace.beginObject()
+                    .name("name").value(event.name)
+                    .name("cat").value(event.category)
+                    .name("ph").value("X")
+                    .name("ts").value(event.startMicros)
+                    .name("dur").value(event.durationMicros)
+                    .name("pid").value(1)
+                    .name("tid").value(event.threadId);
+            if (event.detail != null) {
+                trace.name("args").beginObject().name("detail").value(event.detail).endObject();
+            }
+            trace.endObject();
+        } catch (IOException e) {
+            System.err.println("Error writing timeline: " + e);
+            try {
+                trace.close();
+            } catch (IOException ignored) {
+                // the trace is already unusable
+            }
+            trace = null;
+        }
+    }
+
+    private void stepFinished(TestStepFinished event) {
+        String category;
+        String name;
+        String detail;
+        if (event.getTestStep() instanceof PickleStepTestStep) {
+            PickleStepTestStep step = (PickleStepTestStep) event.getTestStep();
+            category = "step";
+            name = step.getPattern();
+            detail = step.getStep().getKeyword() + step.getStep().getText();
+        } else {
+            HookTestStep hook = (HookTestStep) event.getTestStep();
+            category = "hook";
+            name = hook.getHookType().name().toLowerCase(Locale.ROOT) + " " + hook.getCodeLocation();
+            detail = null;
+        }
+        recordFinished(category, name, detail, event.getInstant(), event.getResult().getDuration(),
+                event.getResult().getStatus().name());
+    }
+
+    private void scenarioFinished(TestCaseFinished event) {
+        recordFinished("scenario", event.getTestCase().getName(), event.getTestCase().getUri() + ":"
+                + event.getTestCase().getLocation().getLine(), event.getInstant(), event.getResult().getDuration(),
+                event.getResult().getStatus().name());
+    }
+
+    private void recordFinished(String category, String name, String detail, Instant end, Duration duration,
+                                String status) {
+        long durationMicros = TimeUnit.NANOSECONDS.toMicros(duration.toNanos());
+        long endMicros = Timeline.micros(end);
+        Timeline.record(category, name, detail == null ? status : detail + " [" + status + "]",
+                endMicros - durationMicros, durationMicros);
+    }
+
+    private void observe(Timeline.Event event) {
+        String metric;
+        String labels;
+        switch (event.category) {
+            case "step":
+                metric = "bdd_step_duration_seconds";
+                labels = "step=\"" + escape(event.name) + "\"";
+                break;
+            case "hook":
+                metric = "bdd_hook_duration_seconds";
+                labels = "hook=\"" + escape(event.name) + "\"";
+                break;
+            case "scenario":
+                metric = "bdd_scenario_duration_seconds";
+                labels = "feature=\"" + escape(featureOf(event.detail)) + "\"";
+                break;
+            default:
+                metric = "bdd_framework_duration_seconds";
+                labels = "category=\"" + escape(event.category) + "\",operation=\"" + escape(event.name) + "\"";
+        }
+        metrics.computeIfAbsent(metric, m -> new TreeMap<>())
+                .computeIfAbsent(labels, l -> new Histogram())
+                .observe(event.durationMicros / 1_000_000.0);
+    }
+
+    private void writeMetrics() throws IOException {
+        if (metricsPath.getParent() != null) {
+            Files.createDirectories(metricsPath.getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(metricsPath, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Map<String, Histogram>> metric : metrics.entrySet()) {
+                out.write("# HELP " + metric.getKey() + " " + help(metric.getKey()) + "\n");
+                out.write("# TYPE " + metric.getKey() + " histogram\n");
+                for (Map.Entry<String, Histogram> series : metric.getValue().entrySet()) {
+                    series.getValue().write(out, metric.getKey(), series.getKey());
+                }
+            }
+        }
+    }
+
+    private static String help(String metric) {
+        switch (metric) {
+            case "bdd_step_duration_seconds":
+                return "Duration of the Cucumber steps, by step definition pattern.";
+            case "bdd_hook_duration_seconds":
+                return "Duration of the Cucumber hooks.";
+            case "bdd_scenario_duration_seconds":
+                return "Duration of the scenarios, by feature.";
+            default:
+                return "Time spent in framework operations (waits, screenshots, report logging).";
+        }
+    }
+
+    /**
+     * Extracts the feature URI from the detail of a scenario event, "&lt;uri&gt;:&lt;line&gt; [&lt;status&gt;]".
+     */
+    private static String featureOf(String detail) {
+        String location = detail.substring(0, detail.lastIndexOf(" ["));
+        return location.substring(0, location.lastIndexOf(':'));
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Cumulative histogram with the {@link #BUCKETS} upper bounds, in seconds.
+     */
+    private static class Histogram {
+
+        private final long[] counts = new long[BUCKETS.length];
+        private long count;
+        private double sum;
+
+        void observe(double seconds) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (seconds <= BUCKETS[i]) {
+                    counts[i]++;
+                }
+            }
+            count++;
+            sum += seconds;
+        }
+
+        void write(Writer out, String metric, String labels) throws IOException {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                out.write(metric + "_bucket{" + labels + ",le=\"" + BUCKETS[i] + "\"} " + counts[i] + "\n");
+            }
+            out.write(metric + "_bucket{" + labels + ",le=\"+Inf\"} " + count + "\n");
+            out.write(metric + "_sum{" + labels + "} " + sum + "\n");
+            out.write(metric + "_count{" + labels + "} " + count + "\n");
+        }
+    }
+}
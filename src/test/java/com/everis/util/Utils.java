@@ -1,16 +1,20 @@
 package com.everis.util;
 
-import java.io.File;
-import java.io.FileFilter;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
 
+import org.apache.commons.io.IOUtils;
+
 /**
  * Utils provides common utility methods for handling files, dates,
  * and simple text operations within the automation framework.
@@ -18,34 +22,14 @@ import java.util.Date;
 public class Utils {
 
     /**
-     * Waits until at least one file exists in the specified directory,
-     * or until the timeout is reached.
+     * Waits until at least one completed file exists in the specified directory,
+     * or until the timeout is reached (see {@link Downloads#await(java.nio.file.Path, String, int)}).
      *
      * @param dir              directory path to monitor
      * @param timeOutInSeconds timeout in seconds
      */
     public static void waitForFileExistsInPath(String dir, int timeOutInSeconds) {
-        File folder = new File(dir);
-        FileFilter filter = File::isFile;
-
-        File[] files = folder.listFiles(filter);
-        int counter = 0;
-        boolean timeoutReached = false;
-
-        while ((files == null || files.length == 0) && !timeoutReached) {
-            try {
-                Thread.sleep(200);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                e.printStackTrace();
-            }
-
-            counter++;
-            timeoutReached = timeOutInSeconds == counter / 5;
-            files = folder.listFiles(filter);
-        }
-
-        if (timeoutReached) {
+        if (Downloads.await(Paths.get(dir), "*", timeOutInSeconds) == null) {
             System.err.println("No file was generated in path - " + dir +
                                " after " + timeOutInSeconds + " seconds.");
         }
@@ -119,4 +103,40 @@ public class Utils {
             return "";
         }
     }
+
+    /**
+     * Returns the SHA-256 digest of the given bytes as a lowercase hexadecimal string.
+     *
+     * @param content the bytes to hash
+     * @return hexadecimal SHA-256 digest
+     */
+    public static String sha256Hex(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads a UTF-8 classpath resource into a string.
+     *
+     * @param name resource name (e.g. "scripts/wait-for-element.js")
+     * @return resource content
+     */
+    public static String readResourceToString(String name) {
+        try (InputStream in = Utils.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Resource not found: " + name);
+            }
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
 }
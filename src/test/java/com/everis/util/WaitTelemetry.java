@@ -0,0 +1,203 @@
+package com.everis.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openqa.selenium.By;
+
+/**
+ * WaitTelemetry records how long each wait of the page objects took to succeed, or its timeout
+ * when it did not, keyed by page class, condition and locator, and keeps the statistics between runs
+ * in "wait.telemetry.file" (default ".bdd-cache/wait-telemetry.tsv").
+ *
+ * With -Dwait.adaptive=true, once a key has "wait.adaptive.minSamples" samples (default 20):
+ * - the timeout becomes p99 x "wait.adaptive.safetyFactor" (default 3), at least
+ *   "wait.adaptive.minTimeoutMillis" (default 1000) and never more than the requested one;
+ * - the polling interval becomes a quarter of the median, between 10 and 500 ms.
+ * A wait that times out with a learned timeout is retried once with the requested one (see BasePage).
+ */
+public class WaitTelemetry {
+
+    private static final boolean ADAPTIVE = Boolean.getBoolean("wait.adaptive");
+    private static final int MIN_SAMPLES = Integer.getInteger("wait.adaptive.minSamples", 20);
+    private static final double SAFETY_FACTOR = Double.parseDouble(System.getProperty("wait.adaptive.safetyFactor", "3"));
+    private static final long MIN_TIMEOUT_MILLIS = Long.getLong("wait.adaptive.minTimeoutMillis", 1000L);
+    private static final Path FILE = Paths.get(System.getProperty("wait.telemetry.file", ".bdd-cache/wait-telemetry.tsv"));
+    private static final int MAX_SAMPLES = 200;
+
+    private static final Map<String, Samples> stats = load();
+
+    private WaitTelemetry() { }
+
+    /**
+     * Builds the telemetry key of a wait.
+     *
+     * @param page      page object class that waits
+     * @param condition expected condition (e.g. "visible")
+     * @param by        element locator, may be null when unknown
+     * @return the key, or null when the locator is unknown
+     */
+    public static String key(Class<?> page, String condition, By by) {
+        return by == null ? null : page.getName() + "|" + condition + "|" + by;
+    }
+
+    /**
+     * Records a successful wait.
+     *
+     * @param key            telemetry key, ignored when null
+     * @param startNanoTime  value of System.nanoTime() when the wait started
+     */
+    public static void record(String key, long startNanoTime) {
+        if (key == null) {
+            return;
+        }
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanoTime);
+        stats.computeIfAbsent(key, k -> new Samples()).add(millis);
+    }
+
+    /**
+     * Records a wait that timed out, as a censored sample at its timeout: the element took
+     * at least that long. Without it, a learned timeout too short for a slower element
+     * would never grow again.
+     *
+     * @param key              telemetry key, ignored when null
+     * @param timeOutInSeconds timeout of the wait
+     */
+    public static void recordTimeout(String key, int timeOutInSeconds) {
+        if (key == null) {
+            return;
+        }
+        stats.computeIfAbsent(key, k -> new Samples()).add(TimeUnit.SECONDS.toMillis(timeOutInSeconds));
+    }
+
+    /**
+     * Returns the timeout to use for a wait: the requested one, or the learned one in adaptive mode.
+     *
+     * @param key              telemetry key
+     * @param timeOutInSeconds timeout requested by the page object
+     * @return timeout in seconds
+     */
+    public static int timeoutFor(String key, int timeOutInSeconds) {
+        Samples samples = adaptiveSamples(key);
+        if (samples == null) {
+            return timeOutInSeconds;
+        }
+        long learned = Math.max(MIN_TIMEOUT_MILLIS, (long) (samples.percentile(0.99) * SAFETY_FACTOR));
+        int learnedSeconds = (int) Math.ceil(learned / 1000.0);
+        return Math.min(timeOutInSeconds, learnedSeconds);
+    }
+
+    /**
+     * Returns the polling interval to use for a wait: the given one, or the learned one in adaptive mode.
+     *
+     * @param key           telemetry key
+     * @param defaultMillis polling interval used by the page object
+     * @return polling interval in milliseconds
+     */
+    public static long pollingFor(String key, long defaultMillis) {
+        Samples samples = adaptiveSamples(key);
+        if (samples == null) {
+            return defaultMillis;
+        }
+        return Math.max(10L, Math.min(500L, samples.percentile(0.5) / 4));
+    }
+
+    /**
+     * Writes the statistics to the telemetry file.
+     */
+    public static void save() {
+        List<String> lines = new ArrayList<>();
+        new TreeMap<>(stats).forEach((key, samples) -> lines.add(key + "\t" + samples));
+        try {
+            if (FILE.getParent() != null) {
+                Files.createDirectories(FILE.getParent());
+            }
+            Files.write(FILE, lines, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Error saving wait telemetry: " + e);
+        }
+    }
+
+    private static Samples adaptiveSamples(String key) {
+        if (!ADAPTIVE || key == null) {
+            return null;
+        }
+        Samples samples = stats.get(key);
+        return samples != null && samples.size() >= MIN_SAMPLES ? samples : null;
+    }
+
+    private static Map<String, Samples> load() {
+        Map<String, Samples> loaded = new ConcurrentHashMap<>();
+        if (!Files.exists(FILE)) {
+            return loaded;
+        }
+        try {
+            for (String line : Files.readAllLines(FILE, StandardCharsets.UTF_8)) {
+                int separator = line.lastIndexOf('\t');
+                if (separator <= 0) {
+                    continue;
+                }
+                Samples samples = new Samples();
+                for (String value : line.substring(separator + 1).split(",")) {
+                    if (!value.isEmpty()) {
+                        samples.add(Long.parseLong(value));
+                    }
+                }
+                loaded.put(line.substring(0, separator), samples);
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("Error reading wait telemetry, starting from scratch: " + e);
+            loaded.clear();
+        }
+        return loaded;
+    }
+
+    /**
+     * Last {@value #MAX_SAMPLES} durations, in milliseconds, of a wait.
+     */
+    private static class Samples {
+
+        private final long[] values = new long[MAX_SAMPLES];
+        private int count;
+        private int next;
+
+        synchronized void add(long millis) {
+            values[next] = millis;
+            next = (next + 1) % MAX_SAMPLES;
+            count = Math.min(count + 1, MAX_SAMPLES);
+        }
+
+        synchronized int size() {
+            return count;
+        }
+
+        synchronized long percentile(double percentile) {
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))];
+        }
+
+        @Override
+        public synchronized String toString() {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < count; i++) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append(values[(next - count + i + MAX_SAMPLES) % MAX_SAMPLES]);
+            }
+            return builder.toString();
+        }
+    }
+}
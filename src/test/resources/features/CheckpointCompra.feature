@@ -0,0 +1,26 @@
+#language: pt
+#encoding: utf-8
+
+@checkpoints
+Funcionalidade: Retomar a compra a partir da pesquisa salva
+
+	Como um comprador
+	Quero continuar a partir do produto que ja pesquisei
+	Para que cada verificacao nao repita a navegacao ate a pesquisa
+
+  # The setup steps before the checkpoint must be idempotent (navigation, search):
+  # the first scenario saves the browser state there, the other one restores it.
+  @checkpoint:pesquisa-blouse
+  Cenario: Encontrar o produto pesquisado
+  	Dado que um usuario acessa o site "http://automationpractice.com"
+  	E pesquisa pelo produto "Blouse"
+  	E o checkpoint "pesquisa-blouse" foi salvo
+  	Entao o produto "Blouse" deve estar presente no resultado da pesquisa
+
+  @checkpoint:pesquisa-blouse
+  Cenario: Adicionar ao carrinho o produto pesquisado
+  	Dado que um usuario acessa o site "http://automationpractice.com"
+  	E pesquisa pelo produto "Blouse"
+  	E o checkpoint "pesquisa-blouse" foi salvo
+  	Quando adiciona o produto "Blouse" ao carrinho
+  	Entao o produto "Blouse" deve estar presente no carrinho
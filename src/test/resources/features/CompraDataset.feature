@@ -0,0 +1,17 @@
+#language: pt
+#encoding: utf-8
+
+@dataset
+Funcionalidade: Realizar Compra com massa de dados
+
+	Como um comprador
+	Quero comprar os produtos de um catalogo
+	Para que cada produto do catalogo seja validado no carrinho
+
+  Cenario: Adicionar cada produto do catalogo CSV ao carrinho
+  	Dado que um usuario acessa o site "http://automationpractice.com"
+  	Entao cada produto do dataset "produtos" deve ser adicionado ao carrinho
+
+  Cenario: Adicionar cada produto do catalogo JSON Lines ao carrinho
+  	Dado que um usuario acessa o site "http://automationpractice.com"
+  	Entao cada produto do dataset "produtos.jsonl" deve ser adicionado ao carrinho
@@ -0,0 +1,14 @@
+/*
+ * Cart of the fixture store: the names of the added products are kept in the "cart" cookie.
+ */
+var store = {
+    products: function () {
+        var match = document.cookie.match(/(?:^|; )cart=([^;]*)/);
+        return match && match[1] ? decodeURIComponent(match[1]).split('|') : [];
+    },
+    add: function (name) {
+        var products = store.products();
+        products.push(name);
+        document.cookie = 'cart=' + encodeURIComponent(products.join('|')) + '; path=/';
+    }
+};
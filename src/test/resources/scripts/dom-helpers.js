@@ -0,0 +1,51 @@
+/*
+ * Helpers shared by the page scripts, prepended to them before execution.
+ */
+function __toArray(list) {
+    return Array.prototype.slice.call(list);
+}
+
+/* Finds the elements of a Selenium locator split by Locators.toScript (using/value). */
+function __findElements(using, value) {
+    switch (using) {
+        case 'id':
+            return __toArray(document.querySelectorAll('#' + CSS.escape(value)));
+        case 'name':
+            return __toArray(document.getElementsByName(value));
+        case 'className':
+            return __toArray(document.getElementsByClassName(value));
+        case 'tagName':
+            return __toArray(document.getElementsByTagName(value));
+        case 'cssSelector':
+            return __toArray(document.querySelectorAll(value));
+        case 'linkText':
+        case 'partialLinkText':
+            return __toArray(document.getElementsByTagName('a')).filter(function (link) {
+                var linkText = (link.innerText || link.textContent || '').trim();
+                return using === 'linkText' ? linkText === value : linkText.indexOf(value) >= 0;
+            });
+        case 'xpath':
+            var snapshot = document.evaluate(value, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);
+            var nodes = [];
+            for (var i = 0; i < snapshot.snapshotLength; i++) {
+                if (snapshot.snapshotItem(i).nodeType === Node.ELEMENT_NODE) {
+                    nodes.push(snapshot.snapshotItem(i));
+                }
+            }
+            return nodes;
+    }
+    throw new Error('Unsupported locator: ' + using);
+}
+
+/* Approximation of WebElement.isDisplayed: attached, not hidden and with a layout box. */
+function __isVisible(element) {
+    if (!element.isConnected) {
+        return false;
+    }
+    var style = window.getComputedStyle(element);
+    if (style.visibility === 'hidden' || style.visibility === 'collapse' || style.opacity === '0') {
+        return false;
+    }
+    return element.offsetWidth > 0 || element.offsetHeight > 0 || element.getClientRects().length > 0;
+}
+
@@ -0,0 +1,25 @@
+/*
+ * Reads the state of several locators in a single call.
+ * Executed with executeScript(script, locators, attributes), after dom-helpers.js,
+ * where locators is a list of {using, value} and attributes a list of attribute names.
+ * Returns, for each locator, the number of elements found and the displayed flag,
+ * text and attributes of the first one.
+ */
+var locators = arguments[0];
+var attributes = arguments[1];
+
+return locators.map(function (locator) {
+    var elements = __findElements(locator.using, locator.value);
+    var state = { count: elements.length, displayed: false, text: null, attributes: {} };
+    if (elements.length > 0) {
+        var first = elements[0];
+        state.displayed = __isVisible(first);
+        state.text = state.displayed ? (first.innerText || '').trim() : '';
+        attributes.forEach(function (name) {
+            var attribute = name in first && typeof first[name] !== 'function' && typeof first[name] !== 'object'
+                    ? first[name] : first.getAttribute(name);
+            state.attributes[name] = attribute === null || attribute === undefined ? null : String(attribute);
+        });
+    }
+    return state;
+});
@@ -0,0 +1,75 @@
+/*
+ * Waits, inside the page, until the elements found by a Selenium locator meet a condition.
+ * Executed with executeAsyncScript(script, using, value, condition, text, timeoutMillis),
+ * after dom-helpers.js.
+ *
+ * Conditions:
+ *   visible    -> resolves with the first element once it is visible, or null on timeout
+ *   allVisible -> resolves with every element once all are visible, or null on timeout
+ *   invisible  -> resolves with true once the first element is absent or hidden, or false on timeout
+ *   value      -> resolves with true once the first element value contains text, or false on timeout
+ *
+ * The condition is checked on every DOM mutation and input event, with a slow interval
+ * as a safety net for style changes that do not mutate the DOM (e.g. stylesheet rules).
+ */
+var using = arguments[0];
+var value = arguments[1];
+var condition = arguments[2];
+var text = arguments[3];
+var timeout = arguments[4];
+var done = arguments[arguments.length - 1];
+
+function check() {
+    var elements = __findElements(using, value);
+    switch (condition) {
+        case 'visible':
+            return elements.length > 0 && __isVisible(elements[0]) ? elements[0] : null;
+        case 'allVisible':
+            return elements.length > 0 && elements.every(__isVisible) ? elements : null;
+        case 'invisible':
+            return elements.length === 0 || !__isVisible(elements[0]) ? true : null;
+        case 'value':
+            return elements.length > 0 && String(elements[0].value || '').indexOf(text) >= 0 ? true : null;
+    }
+    throw new Error('Unsupported condition: ' + condition);
+}
+
+var events = ['input', 'change', 'transitionend', 'animationend'];
+var finished = false;
+var observer, interval, timer;
+
+function finish(outcome) {
+    if (finished) {
+        return;
+    }
+    finished = true;
+    observer.disconnect();
+    clearInterval(interval);
+    clearTimeout(timer);
+    events.forEach(function (event) { document.removeEventListener(event, tick, true); });
+    done(outcome);
+}
+
+function tick() {
+    try {
+        var outcome = check();
+        if (outcome !== null) {
+            finish(outcome);
+        }
+    } catch (e) {
+        finish(null);
+    }
+}
+
+var result = check();
+if (result !== null) {
+    done(result);
+} else {
+    observer = new MutationObserver(tick);
+    observer.observe(document, { childList: true, subtree: true, attributes: true, characterData: true });
+    events.forEach(function (event) { document.addEventListener(event, tick, true); });
+    interval = setInterval(tick, 250);
+    timer = setTimeout(function () {
+        finish(condition === 'invisible' || condition === 'value' ? false : null);
+    }, timeout);
+}
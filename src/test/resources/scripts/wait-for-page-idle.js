@@ -0,0 +1,83 @@
+/*
+ * Waits until the page is idle: document loaded, no XHR/fetch request in flight
+ * and no finite CSS animation or transition running, for a quiet period.
+ * Executed with executeAsyncScript(script, quietMillis, timeoutMillis).
+ * Resolves with true when the page is idle, or false on timeout.
+ *
+ * The request tracker is installed on the first wait of each page, so requests
+ * started before it are not seen; the quiet period covers most of them.
+ */
+var quiet = arguments[0];
+var timeout = arguments[1];
+var done = arguments[arguments.length - 1];
+
+if (!window.__pageIdleTracker) {
+    var tracker = window.__pageIdleTracker = { pending: 0, lastActivity: Date.now() };
+
+    var requestStarted = function () {
+        tracker.pending++;
+        tracker.lastActivity = Date.now();
+    };
+    var requestEnded = function () {
+        tracker.pending = Math.max(0, tracker.pending - 1);
+        tracker.lastActivity = Date.now();
+    };
+
+    var send = XMLHttpRequest.prototype.send;
+    XMLHttpRequest.prototype.send = function () {
+        requestStarted();
+        this.addEventListener('loadend', requestEnded, { once: true });
+        try {
+            return send.apply(this, arguments);
+        } catch (e) {
+            requestEnded();
+            throw e;
+        }
+    };
+
+    if (window.fetch) {
+        var fetch = window.fetch;
+        window.fetch = function () {
+            requestStarted();
+            return fetch.apply(this, arguments).then(function (response) {
+                requestEnded();
+                return response;
+            }, function (error) {
+                requestEnded();
+                throw error;
+            });
+        };
+    }
+}
+
+var tracker = window.__pageIdleTracker;
+
+function animating() {
+    if (!document.getAnimations) {
+        return false;
+    }
+    return document.getAnimations().some(function (animation) {
+        return animation.playState === 'running' && animation.effect
+            && isFinite(animation.effect.getComputedTiming().endTime);
+    });
+}
+
+function busy() {
+    return document.readyState !== 'complete' || tracker.pending > 0 || animating();
+}
+
+var started = Date.now();
+var interval = setInterval(function () {
+    var now = Date.now();
+    if (busy()) {
+        tracker.lastActivity = now;
+    } else if (now - tracker.lastActivity >= quiet) {
+        clearInterval(interval);
+        done(true);
+        return;
+    }
+    if (now - started >= timeout) {
+        clearInterval(interval);
+        done(false);
+    }
+}, 25);